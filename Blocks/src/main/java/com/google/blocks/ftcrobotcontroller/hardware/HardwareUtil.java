@@ -1851,6 +1851,7 @@ public class HardwareUtil {
     set.add("internalPreInit");
     set.add("internalOpModeServices");
     set.add("internalUpdateTelemetryNow");
+    set.add("internalSendTelemetrySamplesNow");
     // https://docs.oracle.com/javase/tutorial/java/nutsandbolts/_keywords.html
     set.add("abstract");
     set.add("assert");
@@ -81,6 +81,7 @@ import com.qualcomm.robotcore.hardware.usb.RobotArmingStateNotifier;
 import com.qualcomm.robotcore.hardware.usb.RobotUsbModule;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.SerialNumber;
 import com.qualcomm.robotcore.util.ThreadPool;
@@ -219,6 +220,11 @@ public class FtcEventLoop extends FtcEventLoopBase {
     ftcEventLoopHandler.refreshUserTelemetry(telemetry, sInterval);
   }
 
+  @Override
+  public void sendUserTelemetrySamples(TelemetrySamplesMessage samples) {
+    ftcEventLoopHandler.sendUserTelemetrySamples(samples);
+  }
+
   /**
    * Teardown method
    * <p>
@@ -139,6 +139,7 @@ import org.firstinspires.ftc.robotcore.internal.collections.SimpleGson;
 import org.firstinspires.ftc.robotcore.internal.network.CallbackResult;
 import org.firstinspires.ftc.robotcore.internal.network.NetworkConnectionHandler;
 import org.firstinspires.ftc.robotcore.internal.network.PreferenceRemoterRC;
+import org.firstinspires.ftc.robotcore.internal.network.RecvLoopRunnable;
 import org.firstinspires.ftc.robotcore.internal.network.RobotCoreCommandList;
 import org.firstinspires.ftc.robotcore.internal.network.WifiDirectAgent;
 import org.firstinspires.ftc.robotcore.internal.network.WifiDirectGroupName;
@@ -202,6 +203,31 @@ public abstract class FtcEventLoopBase implements EventLoop
         this.ftcEventLoopHandler = new FtcEventLoopHandler(hardwareFactory, callback, activityContext);
         this.programmingModeController = programmingModeController;
         this.usbScanManager = null;
+        setCommandLanes();
+        }
+
+    /**
+     * Assigns the commands we process to their {@link RecvLoopRunnable.CommandLane}s. File and
+     * configuration reads and writes don't touch the running event loop, so they're processed
+     * outside the event loop lock; restarts, configuration activation, and programming mode do,
+     * so they remain under it.
+     */
+    protected void setCommandLanes()
+        {
+        // Keep opmode control from queueing behind slow file and configuration work
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_INIT_OP_MODE,                      RecvLoopRunnable.CommandLane.CONTROL);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_RUN_OP_MODE,                       RecvLoopRunnable.CommandLane.CONTROL);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_RESTART_ROBOT,                     RecvLoopRunnable.CommandLane.BULK);    // ordered after configuration saves & activations
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_ACTIVATE_CONFIGURATION,            RecvLoopRunnable.CommandLane.BULK);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_SAVE_CONFIGURATION,                RecvLoopRunnable.CommandLane.BULK, false);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_DELETE_CONFIGURATION,              RecvLoopRunnable.CommandLane.BULK, false);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_REQUEST_CONFIGURATIONS,            RecvLoopRunnable.CommandLane.BULK, false);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_REQUEST_CONFIGURATION_TEMPLATES,   RecvLoopRunnable.CommandLane.BULK, false);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_REQUEST_PARTICULAR_CONFIGURATION,  RecvLoopRunnable.CommandLane.BULK, false);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_START_PROGRAMMING_MODE,            RecvLoopRunnable.CommandLane.BULK);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_START_DS_PROGRAM_AND_MANAGE,       RecvLoopRunnable.CommandLane.BULK);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_STOP_PROGRAMMING_MODE,             RecvLoopRunnable.CommandLane.BULK);
+        RecvLoopRunnable.setCommandLane(CommandList.CMD_GET_CANDIDATE_LYNX_FIRMWARE_IMAGES, RecvLoopRunnable.CommandLane.BULK, false);
         }
 
     //----------------------------------------------------------------------------------------------
@@ -53,6 +53,7 @@ import com.qualcomm.robotcore.hardware.configuration.ControllerConfiguration;
 import com.qualcomm.robotcore.hardware.configuration.LynxConstants;
 import com.qualcomm.robotcore.hardware.usb.RobotArmingStateNotifier;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.robot.RobotState;
 import com.qualcomm.robotcore.util.BatteryChecker;
 import com.qualcomm.robotcore.util.ElapsedTime;
@@ -375,6 +376,22 @@ public class FtcEventLoopHandler implements BatteryChecker.BatteryWatcher {
     }
   }
 
+  /**
+   * Sends a batch of the user's telemetry samples. Unlike {@link #refreshUserTelemetry}, there's
+   * no minimum interval: samples are already batched by their producer, and a batch that was held
+   * back would be lost. The batch is always cleared.
+   *
+   * @param samples the samples to send
+   */
+  public void sendUserTelemetrySamples(TelemetrySamplesMessage samples) {
+    synchronized (this.refreshUserTelemetryLock) {
+      if (samples.hasSamples() && eventLoopManager!=null) {
+        eventLoopManager.sendTelemetrySamples(samples);
+      }
+      samples.clearSamples();
+    }
+  }
+
   /**
    * Send robot phone power % and robot battery voltage level to Driver station
    */
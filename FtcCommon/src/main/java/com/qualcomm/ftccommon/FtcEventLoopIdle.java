@@ -10,6 +10,7 @@ import com.qualcomm.robotcore.eventloop.opmode.OpModeRegister;
 import com.qualcomm.robotcore.exception.RobotCoreException;
 import com.qualcomm.robotcore.hardware.usb.RobotUsbModule;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.SerialNumber;
 
@@ -61,6 +62,11 @@ public class FtcEventLoopIdle extends FtcEventLoopBase
         {
         }
 
+    @Override public void sendUserTelemetrySamples(TelemetrySamplesMessage samples)
+        {
+        samples.clearSamples();
+        }
+
     @Override public void teardown() throws RobotCoreException, InterruptedException
         {
         RobotLog.ii(TAG, "------- idle teardown ----");
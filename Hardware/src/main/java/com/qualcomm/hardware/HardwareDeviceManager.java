@@ -857,7 +857,10 @@ public class HardwareDeviceManager implements DeviceManager {
   public I2cDeviceSynch createI2cDeviceSynch(RobotCoreLynxModule lynxModule, DeviceConfiguration.I2cChannel channel, String name) {
     RobotLog.v("Creating I2cDeviceSynch (Lynx) - mod=%d bus=%d", lynxModule.getModuleAddress(), channel.channel);
     I2cDeviceSynchSimple i2cDeviceSynchSimple = createI2cDeviceSynchSimple(lynxModule, channel, name);
-    I2cDeviceSynch result = new I2cDeviceSynchImplOnSimple(i2cDeviceSynchSimple, true);
+    I2cDeviceSynchImplOnSimple result = new I2cDeviceSynchImplOnSimple(i2cDeviceSynchSimple, true);
+    if (lynxModule instanceof LynxModule) {
+      result.setPrefetcher(((LynxModule)lynxModule).getI2cPrefetcher(), channel.channel);
+    }
     return result;
   }
 
@@ -64,6 +64,14 @@ public interface AMSColorSensor extends ColorSensor, NormalizedColorSensor
      */
     Parameters getParameters();
 
+    /**
+     * Returns the number of distinct samples that have been read from the sensor. All the
+     * channels are read together, and reads within one integration interval share the same
+     * sample, so a caller can compare counts to tell fresh data from stale.
+     * @return the number of distinct samples that have been read from the sensor
+     */
+    long getSampleCount();
+
     /**
      * Instances of Parameters contain data indicating how the
      * sensor is to be initialized.
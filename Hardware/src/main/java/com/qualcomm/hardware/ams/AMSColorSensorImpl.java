@@ -44,6 +44,7 @@ import com.qualcomm.robotcore.hardware.I2cDeviceSynchSimple;
 import com.qualcomm.robotcore.hardware.I2cWaitControl;
 import com.qualcomm.robotcore.hardware.Light;
 import com.qualcomm.robotcore.hardware.NormalizedRGBA;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.TypeConversion;
 
@@ -77,6 +78,12 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
 
     public static final String TAG = "AMSColorSensorImpl";
 
+    // The most recent burst read of all the channels; see updateSample()
+    protected boolean sampleValid = false;
+    protected long    sampleCount = 0;
+    protected long    nanoTimeSample = 0;
+    protected int     sampleAlpha, sampleRed, sampleGreen, sampleBlue, sampleProximity;
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -109,6 +116,7 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
 
             // Remember the parameters for future use
             this.parameters = parameters.clone();
+            this.sampleValid = false;
 
             // Make sure we're talking to the correct I2c device
             this.setI2cAddress(parameters.i2cAddr);
@@ -295,6 +303,11 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
         write8(Register.PPLUSE, proximityPulseCount);
         }
 
+    protected boolean isProximityEnabled()
+        {
+        return is3782() && parameters.useProximityIfAvailable;
+        }
+
     protected boolean is3782()
         {
         return this.parameters.deviceId==AMS_TMD37821_ID || this.parameters.deviceId==AMS_TMD37823_ID;
@@ -371,8 +384,44 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
         }
 
     @Override
-    public NormalizedRGBA getNormalizedColors()
+    public synchronized NormalizedRGBA getNormalizedColors()
+        {
+        if (!updateSample())
+            {
+            // Return fake data and get out of here
+            return new NormalizedRGBA();
+            }
+
+        float colorNormalizationFactor = 1.0f / parameters.getMaximumReading();
+
+        NormalizedRGBA result = new NormalizedRGBA();
+        result.alpha = sampleAlpha * colorNormalizationFactor;
+        result.red   = sampleRed   * colorNormalizationFactor;
+        result.green = sampleGreen * colorNormalizationFactor;
+        result.blue  = sampleBlue  * colorNormalizationFactor;
+        return result;
+        }
+
+    @Override
+    public synchronized long getSampleCount()
+        {
+        return sampleCount;
+        }
+
+    /**
+     * Brings the cached sample up to date. STATUS, all the colors and (if enabled) the
+     * proximity are read in one burst, and that burst is skipped entirely if the sensor
+     * can't yet have completed another integration cycle since the last one.
+     * @return whether valid data is available
+     */
+    protected synchronized boolean updateSample()
         {
+        long nsInterval = (long)(parameters.msAccumulationInterval() * ElapsedTime.MILLIS_IN_NANO);
+        if (sampleValid && System.nanoTime() - nanoTimeSample < nsInterval)
+            {
+            return true;
+            }
+
         // Wait for data to be valid. But don't wait forever: it's basically never
         // a good idea to wait forever. Be efficient and only use one I2c transaction
         // in the case where the data is already valid, which is the common case.
@@ -381,8 +430,8 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
         byte[] data = null;
         for (;;)
             {
-            // Read STATUS, ALPHA, RED, GREEN & BLUE
-            final int cbRead = Register.PDATA.bVal - Register.STATUS.bVal;
+            // Read STATUS, ALPHA, RED, GREEN, BLUE and perhaps PDATA
+            final int cbRead = (isProximityEnabled() ? Register.PDATA.bVal + 2 : Register.PDATA.bVal) - Register.STATUS.bVal;
             data = read(Register.STATUS, cbRead);
 
             // Is the data valid? Carry on if so
@@ -391,26 +440,26 @@ public abstract class AMSColorSensorImpl extends I2cDeviceSynchDeviceWithParamet
             // Get out of here if we should; otherwise, briefly wait then try again
             if (Thread.currentThread().isInterrupted() || !isConnectedAndEnabled() || deadline.hasExpired())
                 {
-                // Return fake data and get out of here
-                return new NormalizedRGBA();
+                sampleValid = false;
+                return false;
                 }
             delay(3);
             }
 
         final int dib = 1;
-        int alpha = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 0, ByteOrder.LITTLE_ENDIAN));
-        int red   = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 2, ByteOrder.LITTLE_ENDIAN));
-        int green = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 4, ByteOrder.LITTLE_ENDIAN));
-        int blue  = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 6, ByteOrder.LITTLE_ENDIAN));
-
-        float colorNormalizationFactor = 1.0f / parameters.getMaximumReading();
+        sampleAlpha = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 0, ByteOrder.LITTLE_ENDIAN));
+        sampleRed   = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 2, ByteOrder.LITTLE_ENDIAN));
+        sampleGreen = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 4, ByteOrder.LITTLE_ENDIAN));
+        sampleBlue  = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 6, ByteOrder.LITTLE_ENDIAN));
+        if (isProximityEnabled())
+            {
+            sampleProximity = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 8, ByteOrder.LITTLE_ENDIAN));
+            }
 
-        NormalizedRGBA result = new NormalizedRGBA();
-        result.alpha = alpha * colorNormalizationFactor;
-        result.red   = red   * colorNormalizationFactor;
-        result.green = green * colorNormalizationFactor;
-        result.blue  = blue  * colorNormalizationFactor;
-        return result;
+        nanoTimeSample = System.nanoTime();
+        sampleValid = true;
+        sampleCount++;
+        return true;
         }
 
     @Override
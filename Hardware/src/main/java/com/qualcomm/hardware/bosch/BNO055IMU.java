@@ -257,6 +257,15 @@ public interface BNO055IMU
      */
     Quaternion getQuaternionOrientation();
 
+    /**
+     * Returns all the commonly used outputs of the sensor at once. Rather than reading each
+     * quantity with its own I2C transaction, as the individual accessors do, the snapshot
+     * is read as two contiguous register blocks and parsed from those.
+     * @return  a snapshot of the sensor's outputs
+     * @see Snapshot
+     */
+    Snapshot getSnapshot();
+
     //----------------------------------------------------------------------------------------------
     // Position and velocity management
     //----------------------------------------------------------------------------------------------
@@ -309,6 +318,33 @@ public interface BNO055IMU
      */
     void stopAccelerationIntegration();
 
+    /**
+     * Start sampling orientation, angular velocity, and linear acceleration on a background
+     * thread every msPollInterval milliseconds, keeping the most recent capacity samples in a
+     * {@link BNO055SampleBuffer}. The buffer may then be queried for the latest sample, for
+     * the samples since a given time, or for a sample interpolated at a given time, all without
+     * waiting on the sensor. Sampling is stopped when the opmode stops.
+     *
+     * @param msPollInterval the interval between samples, in milliseconds; zero samples as fast as possible
+     * @param capacity       the number of samples to retain
+     * @return the buffer into which the samples are placed
+     * @see #stopSampling()
+     */
+    BNO055SampleBuffer startSampling(int msPollInterval, int capacity);
+
+    /**
+     * Stop the sampling thread if it is currently running. The samples already taken remain available.
+     * @see #startSampling(int, int)
+     */
+    void stopSampling();
+
+    /**
+     * Returns the buffer into which the most recent sampling has placed its samples, or null if
+     * sampling has never been started.
+     * @see #startSampling(int, int)
+     */
+    BNO055SampleBuffer getSampleBuffer();
+
     /**
      * {@link AccelerationIntegrator} encapsulates an algorithm for integrating
      * acceleration information over time to produce velocity and position.
@@ -613,6 +649,38 @@ public interface BNO055IMU
             }
         }
 
+    /** @see #getSnapshot() */
+    class Snapshot
+        {
+        /** The time at which the motion data was read, in the {@link System#nanoTime()} timebase */
+        public final long               nanoTime;
+        public final Orientation        angularOrientation;
+        public final AngularVelocity    angularVelocity;
+        public final Quaternion         quaternionOrientation;
+        public final Acceleration       linearAcceleration;
+        public final Acceleration       gravity;
+        public final Temperature        temperature;
+        public final CalibrationStatus  calibrationStatus;
+        public final SystemStatus       systemStatus;
+        public final SystemError        systemError;
+
+        public Snapshot(long nanoTime, Orientation angularOrientation, AngularVelocity angularVelocity, Quaternion quaternionOrientation,
+                        Acceleration linearAcceleration, Acceleration gravity, Temperature temperature,
+                        CalibrationStatus calibrationStatus, SystemStatus systemStatus, SystemError systemError)
+            {
+            this.nanoTime              = nanoTime;
+            this.angularOrientation    = angularOrientation;
+            this.angularVelocity       = angularVelocity;
+            this.quaternionOrientation = quaternionOrientation;
+            this.linearAcceleration    = linearAcceleration;
+            this.gravity               = gravity;
+            this.temperature           = temperature;
+            this.calibrationStatus     = calibrationStatus;
+            this.systemStatus          = systemStatus;
+            this.systemError           = systemError;
+            }
+        }
+
     /** @see #getCalibrationStatus() */
     class CalibrationStatus
         {
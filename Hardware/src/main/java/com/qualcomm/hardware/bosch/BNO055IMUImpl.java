@@ -51,6 +51,7 @@ import com.qualcomm.robotcore.hardware.configuration.typecontainers.UserConfigur
 import com.qualcomm.robotcore.hardware.configuration.annotations.I2cDeviceType;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.ThreadPool;
 import com.qualcomm.robotcore.util.TypeConversion;
 
@@ -97,6 +98,8 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
 
     protected final Object           startStopLock = new Object();
     protected ExecutorService        accelerationMananger;
+    protected ExecutorService        samplingManager;
+    protected volatile BNO055SampleBuffer sampleBuffer;
     protected float                  delayScale             = 1;
     protected static final int       msAwaitChipId          = 2000;
     protected static final int       msAwaitSelfTest        = 2000;
@@ -129,6 +132,16 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
      * @see #lowerWindow
      */
     protected static final I2cDeviceSynch.ReadWindow upperWindow = newWindow(Register.EUL_H_LSB, Register.TEMP);
+
+    /**
+     * The two register windows from which a {@link Snapshot} is parsed: the first contains the
+     * gyro, Euler angle, quaternion, and linear acceleration data (a full 26 bytes), and the
+     * second the gravity data, temperature, and the status registers.
+     *
+     * @see #getSnapshot()
+     */
+    protected static final I2cDeviceSynch.ReadWindow snapshotMotionWindow = newWindow(Register.GYR_DATA_X_LSB, Register.GRV_DATA_X_LSB);
+    protected static final I2cDeviceSynch.ReadWindow snapshotStatusWindow = newWindow(Register.GRV_DATA_X_LSB, Register.UNIT_SEL);
     
     protected static I2cDeviceSynch.ReadWindow newWindow(Register regFirst, Register regMax)
         {
@@ -154,6 +167,8 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
         this.currentMode           = null;
         this.accelerationAlgorithm = new NaiveAccelerationIntegrator();
         this.accelerationMananger  = null;
+        this.samplingManager       = null;
+        this.sampleBuffer          = null;
 
         this.registerArmingStateCallback(false);
         }
@@ -176,6 +191,7 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
     @Override public void resetDeviceConfigurationForOpMode()
         {
         stopAccelerationIntegration();
+        stopSampling();
         this.parameters = disabledParameters();
         super.resetDeviceConfigurationForOpMode();
         }
@@ -191,6 +207,7 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
     @Override public void onOpModePostStop(OpMode opMode)
         {
         stopAccelerationIntegration();
+        stopSampling();
         }
 
     //------------------------------------------------------------------------------------------
@@ -476,6 +493,7 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
     public void close()
         {
         stopAccelerationIntegration();
+        stopSampling();
         super.close();
         }
 
@@ -685,6 +703,54 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
         return new Quaternion(vector.next(), vector.next(), vector.next(), vector.next(), vector.data.nanoTime);
         }
 
+    public synchronized Snapshot getSnapshot()
+        {
+        TimestampedData motion = readSnapshotWindow(snapshotMotionWindow);
+        TimestampedData status = readSnapshotWindow(snapshotStatusWindow);
+
+        org.firstinspires.ftc.robotcore.external.navigation.AngleUnit angleUnit = parameters.angleUnit.toAngleUnit();
+        float angularScale = getAngularScale();
+        float accelerationScale = getMetersAccelerationScale();
+
+        // See getAngularVelocity() and getAngularOrientation() for the sign and order conventions
+        VectorData vector = new VectorData(motion, angularScale);
+        float zRotationRate = -vector.next();
+        float yRotationRate =  vector.next();
+        float xRotationRate =  vector.next();
+        AngularVelocity angularVelocity = new AngularVelocity(angleUnit, xRotationRate, yRotationRate, zRotationRate, motion.nanoTime);
+
+        Orientation orientation = new Orientation(AxesReference.INTRINSIC, AxesOrder.ZYX, angleUnit,
+                angleUnit.normalize(-vector.next()),
+                angleUnit.normalize(vector.next()),
+                angleUnit.normalize(vector.next()),
+                motion.nanoTime);
+
+        vector.scale = (1 << 14);
+        Quaternion quaternion = new Quaternion(vector.next(), vector.next(), vector.next(), vector.next(), motion.nanoTime);
+
+        vector.scale = accelerationScale;
+        Acceleration linearAcceleration = new Acceleration(DistanceUnit.METER, vector.next(), vector.next(), vector.next(), motion.nanoTime);
+
+        vector = new VectorData(status, accelerationScale);
+        Acceleration gravity = new Acceleration(DistanceUnit.METER, vector.next(), vector.next(), vector.next(), status.nanoTime);
+
+        byte[] bytes = status.data;
+        int ibFirst = snapshotStatusWindow.getRegisterFirst();
+        Temperature temperature = new Temperature(this.parameters.temperatureUnit.toTempUnit(), (double)bytes[Register.TEMP.bVal - ibFirst], status.nanoTime);
+        CalibrationStatus calibrationStatus = new CalibrationStatus(bytes[Register.CALIB_STAT.bVal - ibFirst]);
+        SystemStatus systemStatus = SystemStatus.from(bytes[Register.SYS_STAT.bVal - ibFirst]);
+        SystemError systemError = SystemError.from(bytes[Register.SYS_ERR.bVal - ibFirst]);
+
+        return new Snapshot(motion.nanoTime, orientation, angularVelocity, quaternion, linearAcceleration, gravity,
+                temperature, calibrationStatus, systemStatus, systemError);
+        }
+
+    protected TimestampedData readSnapshotWindow(I2cDeviceSynch.ReadWindow window)
+        {
+        deviceClient.ensureReadWindow(window, window);
+        return deviceClient.readTimeStamped(window.getRegisterFirst(), window.getRegisterCount());
+        }
+
     /**
      * Return the number by which we need to divide a raw angle as read from the device in order
      * to convert it to our current angular units. See Table 3-22 of the BNO055 spec
@@ -870,6 +936,129 @@ public abstract class BNO055IMUImpl extends I2cDeviceSynchDeviceWithParameters<I
             }
         }
 
+    //------------------------------------------------------------------------------------------
+    // Sampling
+    //------------------------------------------------------------------------------------------
+
+    public BNO055SampleBuffer startSampling(int msPollInterval, int capacity)
+        {
+        synchronized (this.startStopLock)
+            {
+            this.stopSampling();
+            this.sampleBuffer = new BNO055SampleBuffer(capacity);
+            this.samplingManager = ThreadPool.newSingleThreadExecutor("imu sampling");
+            this.samplingManager.execute(new SamplingManager(msPollInterval, this.sampleBuffer));
+            return this.sampleBuffer;
+            }
+        }
+
+    public void stopSampling() // needs a different lock than 'synchronized(this)'
+        {
+        synchronized (this.startStopLock)
+            {
+            if (this.samplingManager != null)
+                {
+                this.samplingManager.shutdownNow();
+                ThreadPool.awaitTerminationOrExitApplication(this.samplingManager, 10, TimeUnit.SECONDS, "IMU sampling", "unresponsive IMU sampling");
+                this.samplingManager = null;
+                this.sampleBuffer.setCurrent(false);
+                }
+            }
+        }
+
+    public BNO055SampleBuffer getSampleBuffer()
+        {
+        return this.sampleBuffer;
+        }
+
+    /**
+     * Reads the motion registers in one transaction and adds the result to the buffer.
+     * @return the time at which the data was read
+     * @see #snapshotMotionWindow
+     */
+    protected synchronized long addMotionSample(BNO055SampleBuffer buffer)
+        {
+        TimestampedData motion = readSnapshotWindow(snapshotMotionWindow);
+        org.firstinspires.ftc.robotcore.external.navigation.AngleUnit angleUnit = parameters.angleUnit.toAngleUnit();
+        org.firstinspires.ftc.robotcore.external.navigation.AngleUnit radians = org.firstinspires.ftc.robotcore.external.navigation.AngleUnit.RADIANS;
+
+        // Sign and order conventions are as in getAngularVelocity() and getAngularOrientation()
+        VectorData vector = new VectorData(motion, getAngularScale());
+        float zRotationRate = radians.fromUnit(angleUnit, -vector.next());
+        float yRotationRate = radians.fromUnit(angleUnit,  vector.next());
+        float xRotationRate = radians.fromUnit(angleUnit,  vector.next());
+        float heading = radians.normalize(radians.fromUnit(angleUnit, -vector.next()));
+        float roll    = radians.normalize(radians.fromUnit(angleUnit,  vector.next()));
+        float pitch   = radians.normalize(radians.fromUnit(angleUnit,  vector.next()));
+
+        // Skip the quaternion
+        vector.buffer.position(vector.buffer.position() + 8);
+
+        vector.scale = getMetersAccelerationScale();
+        buffer.add(motion.nanoTime, heading, roll, pitch, xRotationRate, yRotationRate, zRotationRate, vector.next(), vector.next(), vector.next());
+        return motion.nanoTime;
+        }
+
+    /** Periodically samples the motion of the sensor into a {@link BNO055SampleBuffer} */
+    class SamplingManager implements Runnable
+        {
+        protected final int msPollInterval;
+        protected final BNO055SampleBuffer buffer;
+        protected final static long nsPerMs = ElapsedTime.MILLIS_IN_NANO;
+
+        SamplingManager(int msPollInterval, BNO055SampleBuffer buffer)
+            {
+            this.msPollInterval = msPollInterval;
+            this.buffer = buffer;
+            }
+
+        @Override public void run()
+            {
+            try
+                {
+                long nsNext = System.nanoTime();
+                while (!isStopRequested())
+                    {
+                    try
+                        {
+                        addMotionSample(buffer);
+                        buffer.setCurrent(true);
+                        }
+                    catch (RuntimeException e)
+                        {
+                        // Keep trying at our usual rate, but don't let the buffer pass for current meanwhile
+                        if (buffer.isCurrent())
+                            {
+                            RobotLog.ee(getLoggingTag(), e, "IMU sampling failed; retrying");
+                            buffer.setCurrent(false);
+                            }
+                        }
+
+                    // Keep to a fixed rate, rather than drifting by the time each read takes
+                    if (msPollInterval > 0)
+                        {
+                        nsNext += msPollInterval * nsPerMs;
+                        long nsNow = System.nanoTime();
+                        if (nsNext - nsNow > 0)
+                            {
+                            Thread.sleep((nsNext - nsNow) / nsPerMs, (int)((nsNext - nsNow) % nsPerMs));
+                            }
+                        else
+                            {
+                            nsNext = nsNow; // we've fallen behind; don't try to catch up with a burst
+                            }
+                        }
+                    else
+                        Thread.yield(); // never do a hard spin
+                    }
+                }
+            catch (InterruptedException|CancellationException e)
+                {
+                return;
+                }
+            }
+        }
+
     boolean isStopRequested()
         {
         return Thread.currentThread().isInterrupted();
@@ -0,0 +1,295 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.bosch;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Acceleration;
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link BNO055SampleBuffer} is a fixed-capacity ring of timestamped IMU samples, as produced
+ * by {@link BNO055IMU#startSampling(int, int)}. Storage is preallocated as primitive arrays, in
+ * the manner of {@link org.firstinspires.ftc.robotcore.internal.collections.CircularLongBuffer},
+ * so that sampling doesn't allocate; once full, each new sample overwrites the oldest.
+ *
+ * Unlike CircularLongBuffer, this class is thread safe: it is written by the sampling thread
+ * and may be queried from any other. Queries never wait on I2C, only (briefly) on each other.
+ * Angles are held in radians and accelerations in meters per second squared.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BNO055SampleBuffer
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** One timestamped sample. The orientation is intrinsic, in ZYX order, as with {@link BNO055IMU#getAngularOrientation()} */
+    public static class Sample
+        {
+        public final long            nanoTime;
+        public final Orientation     angularOrientation;
+        public final AngularVelocity angularVelocity;
+        public final Acceleration    linearAcceleration;
+
+        public Sample(long nanoTime, Orientation angularOrientation, AngularVelocity angularVelocity, Acceleration linearAcceleration)
+            {
+            this.nanoTime           = nanoTime;
+            this.angularOrientation = angularOrientation;
+            this.angularVelocity    = angularVelocity;
+            this.linearAcceleration = linearAcceleration;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected static final int HEADING = 0, ROLL = 1, PITCH = 2;        // orientation
+    protected static final int VX = 3, VY = 4, VZ = 5;                  // angular velocity
+    protected static final int AX = 6, AY = 7, AZ = 8;                  // linear acceleration
+    protected static final int CHANNELS = 9;
+
+    protected final Object lock = new Object();
+    protected final long[]  nanoTimes;
+    protected final float[] values;         // CHANNELS per sample
+    protected final int     capacity;
+    protected int           readIndex;      // index of the oldest sample
+    protected int           size;
+    protected volatile boolean isCurrent = true;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public BNO055SampleBuffer(int capacity)
+        {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity  = capacity;
+        this.nanoTimes = new long[capacity];
+        this.values    = new float[capacity * CHANNELS];
+        clear();
+        }
+
+    public void clear()
+        {
+        synchronized (lock)
+            {
+            readIndex = 0;
+            size = 0;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public int capacity()
+        {
+        return capacity;
+        }
+
+    public int size()
+        {
+        synchronized (lock)
+            {
+            return size;
+            }
+        }
+
+    public boolean isEmpty()
+        {
+        return size()==0;
+        }
+
+    /**
+     * Returns whether new samples are arriving. This is false while reading the sensor is failing:
+     * the samples already in the buffer remain, but they grow older, and callers should not take
+     * the latest of them as the current state of the sensor.
+     */
+    public boolean isCurrent()
+        {
+        return isCurrent;
+        }
+
+    public void setCurrent(boolean isCurrent)
+        {
+        this.isCurrent = isCurrent;
+        }
+
+    /** Returns the most recent sample, or null if there are none */
+    public Sample getLatest()
+        {
+        synchronized (lock)
+            {
+            return size==0 ? null : sampleAt(size-1);
+            }
+        }
+
+    /** Returns the samples taken strictly after the indicated {@link System#nanoTime()}, oldest first */
+    public List<Sample> getSince(long nanoTime)
+        {
+        synchronized (lock)
+            {
+            int first = firstIndexAfter(nanoTime);
+            List<Sample> result = new ArrayList<Sample>(size - first);
+            for (int i = first; i < size; i++)
+                {
+                result.add(sampleAt(i));
+                }
+            return result;
+            }
+        }
+
+    /**
+     * Returns the sample as it would have been at the indicated {@link System#nanoTime()},
+     * interpolating linearly between the samples either side (and taking the short way
+     * round for angles). Times outside the buffered range return the nearest sample. Returns
+     * null if there are no samples.
+     */
+    public Sample getInterpolated(long nanoTime)
+        {
+        synchronized (lock)
+            {
+            if (size==0) return null;
+            int after = firstIndexAfter(nanoTime);
+            if (after == 0) return sampleAt(0);
+            if (after == size) return sampleAt(size-1);
+
+            int ibBefore = mod(readIndex + after - 1);
+            int ibAfter  = mod(readIndex + after);
+            long nsBefore = nanoTimes[ibBefore];
+            long nsAfter  = nanoTimes[ibAfter];
+            float fraction = nsAfter==nsBefore ? 0 : (float)(nanoTime - nsBefore) / (float)(nsAfter - nsBefore);
+
+            float[] interpolated = new float[CHANNELS];
+            for (int channel = 0; channel < CHANNELS; channel++)
+                {
+                float before = values[ibBefore * CHANNELS + channel];
+                float delta  = values[ibAfter * CHANNELS + channel] - before;
+                if (channel <= PITCH)
+                    {
+                    delta = AngleUnit.normalizeRadians(delta);
+                    interpolated[channel] = AngleUnit.normalizeRadians(before + fraction * delta);
+                    }
+                else
+                    {
+                    interpolated[channel] = before + fraction * delta;
+                    }
+                }
+            return makeSample(nanoTime, interpolated, 0);
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Writing
+    //----------------------------------------------------------------------------------------------
+
+    /** Adds a sample, overwriting the oldest if the buffer is full. Angles are in radians. */
+    public void add(long nanoTime, float heading, float roll, float pitch,
+                    float xRotationRate, float yRotationRate, float zRotationRate,
+                    float xAccel, float yAccel, float zAccel)
+        {
+        synchronized (lock)
+            {
+            int index;
+            if (size < capacity)
+                {
+                index = mod(readIndex + size);
+                size++;
+                }
+            else
+                {
+                index = readIndex;
+                readIndex = mod(readIndex + 1);
+                }
+            nanoTimes[index] = nanoTime;
+            int ib = index * CHANNELS;
+            values[ib + HEADING] = heading;
+            values[ib + ROLL]    = roll;
+            values[ib + PITCH]   = pitch;
+            values[ib + VX]      = xRotationRate;
+            values[ib + VY]      = yRotationRate;
+            values[ib + VZ]      = zRotationRate;
+            values[ib + AX]      = xAccel;
+            values[ib + AY]      = yAccel;
+            values[ib + AZ]      = zAccel;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    /** Returns the (logical) index of the first sample later than nanoTime, or size if none. Call with lock held. */
+    protected int firstIndexAfter(long nanoTime)
+        {
+        // Samples are in time order, so binary search
+        int lo = 0, hi = size;
+        while (lo < hi)
+            {
+            int mid = (lo + hi) >>> 1;
+            if (nanoTimes[mod(readIndex + mid)] - nanoTime > 0)
+                hi = mid;
+            else
+                lo = mid + 1;
+            }
+        return lo;
+        }
+
+    /** Call with lock held */
+    protected Sample sampleAt(int index)
+        {
+        int physical = mod(readIndex + index);
+        return makeSample(nanoTimes[physical], values, physical * CHANNELS);
+        }
+
+    protected static Sample makeSample(long nanoTime, float[] values, int ib)
+        {
+        return new Sample(nanoTime,
+            new Orientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.RADIANS, values[ib + HEADING], values[ib + ROLL], values[ib + PITCH], nanoTime),
+            new AngularVelocity(AngleUnit.RADIANS, values[ib + VX], values[ib + VY], values[ib + VZ], nanoTime),
+            new Acceleration(DistanceUnit.METER, values[ib + AX], values[ib + AY], values[ib + AZ], nanoTime));
+        }
+
+    protected int mod(int index)
+        {
+        return index % capacity;
+        }
+    }
@@ -62,6 +62,14 @@ public interface BroadcomColorSensor extends ColorSensor, NormalizedColorSensor
      */
     Parameters getParameters();
 
+    /**
+     * Returns the number of distinct samples that have been read from the sensor. All the
+     * channels are read together, and reads within one measurement period share the same
+     * sample, so a caller can compare counts to tell fresh data from stale.
+     * @return the number of distinct samples that have been read from the sensor
+     */
+    long getSampleCount();
+
     /**
      * Instances of Parameters contain data indicating how the
      * sensor is to be initialized.
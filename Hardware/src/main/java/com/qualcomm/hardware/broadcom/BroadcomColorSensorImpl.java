@@ -44,6 +44,7 @@ import com.qualcomm.robotcore.hardware.I2cDeviceSynchSimple;
 import com.qualcomm.robotcore.hardware.I2cWaitControl;
 import com.qualcomm.robotcore.hardware.Light;
 import com.qualcomm.robotcore.hardware.NormalizedRGBA;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.TypeConversion;
 
@@ -63,6 +64,17 @@ public abstract class BroadcomColorSensorImpl extends I2cDeviceSynchDeviceWithPa
     public static final String TAG = "BroadcomColorSensorImpl";
     NormalizedRGBA colors = new NormalizedRGBA();
     int red = 0, green = 0, blue = 0, alpha = 0;
+    int proximity = 0;
+
+    // LS_MEAS_RATE is left at its reset value, which measures every 100ms
+    protected static final long nsLightSensorMeasurementRate = 100 * ElapsedTime.MILLIS_IN_NANO;
+
+    // Bookkeeping for the most recent burst read of all the channels; see updateSample()
+    protected long sampleCount = 0;
+    protected long nanoTimeLightSample = 0;
+    protected long nanoTimeProximitySample = 0;
+    protected boolean lightSampleValid = false;
+    protected boolean proximitySampleValid = false;
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -98,6 +110,8 @@ public abstract class BroadcomColorSensorImpl extends I2cDeviceSynchDeviceWithPa
 
             // Remember the parameters for future use
             this.parameters = parameters.clone();
+            this.lightSampleValid = false;
+            this.proximitySampleValid = false;
 
             // Make sure we're talking to the correct I2c device
             this.setI2cAddress(parameters.i2cAddr);
@@ -235,37 +249,56 @@ public abstract class BroadcomColorSensorImpl extends I2cDeviceSynchDeviceWithPa
     /** In this implementation, the {@link Color} methods return 16 bit unsigned values. */
 
     @Override
-    public synchronized int red() { updateColors(); return this.red; }
+    public synchronized int red() { updateSample(); return this.red; }
 
     @Override
-    public synchronized int green() { updateColors(); return this.green; }
+    public synchronized int green() { updateSample(); return this.green; }
 
     @Override
-    public synchronized int blue() { updateColors(); return this.blue; }
+    public synchronized int blue() { updateSample(); return this.blue; }
 
     @Override
-    public synchronized int alpha() { updateColors(); return this.alpha; }
+    public synchronized int alpha() { updateSample(); return this.alpha; }
 
     @Override
     public synchronized @ColorInt int argb() { return getNormalizedColors().toColor(); }
 
-    private void updateColors()
+    /**
+     * Brings the cached sample up to date. MAIN_STATUS, the proximity and all the colors are
+     * read in one burst, and that burst is skipped entirely if neither the light sensor nor the
+     * proximity sensor can yet have completed another measurement since we last saw new data.
+     * Reading MAIN_STATUS clears its data bits, so they tell us which channels are fresh.
+     */
+    protected synchronized void updateSample()
     {
-        // Check for updated color values. If new data is not ready yet, keep the last read values
-        byte mainStatus;
-        byte[] data = null;
+        long nsNow = System.nanoTime();
+        boolean lightDue     = !lightSampleValid     || nsNow - nanoTimeLightSample     >= nsLightSensorMeasurementRate;
+        boolean proximityDue = !proximitySampleValid || nsNow - nanoTimeProximitySample >= nsProximityMeasurementRate();
+        if (!lightDue && !proximityDue)
+        {
+            return;
+        }
 
-        // check data status
-        mainStatus = read8(Register.MAIN_STATUS);
+        // Read MAIN_STATUS through the high byte of red
+        final int cbRead = Register.LS_DATA_RED.bVal + 3 - Register.MAIN_STATUS.bVal;
+        byte[] data = read(Register.MAIN_STATUS, cbRead);
+        byte mainStatus = data[0];
+        boolean fresh = false;
 
-        // update color values if LS_DATA is valid
-        if (testBits(mainStatus, MainStatus.LS_DATA_STATUS.bVal))
+        // update the proximity value if PS_DATA is new
+        if (testBits(mainStatus, MainStatus.PS_DATA_STAT.bVal))
         {
-            // Read red, green and blue values
-            final int cbRead = 12;
-            data = read(Register.LS_DATA_IR, cbRead);
+            final int dib = Register.PS_DATA.bVal - Register.MAIN_STATUS.bVal;
+            this.proximity = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib, ByteOrder.LITTLE_ENDIAN));
+            nanoTimeProximitySample = nsNow;
+            proximitySampleValid = true;
+            fresh = true;
+        }
 
-            final int dib = 0;
+        // update color values if LS_DATA is new. If not, keep the last read values
+        if (testBits(mainStatus, MainStatus.LS_DATA_STATUS.bVal))
+        {
+            final int dib = Register.LS_DATA_IR.bVal - Register.MAIN_STATUS.bVal;
             int ir = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib, ByteOrder.LITTLE_ENDIAN));
             this.green = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 3, ByteOrder.LITTLE_ENDIAN));
             this.blue = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, dib + 6, ByteOrder.LITTLE_ENDIAN));
@@ -283,11 +316,38 @@ public abstract class BroadcomColorSensorImpl extends I2cDeviceSynchDeviceWithPa
             this.colors.red = red * colorNormalizationFactor;
             this.colors.green = green * colorNormalizationFactor;
             this.colors.blue = blue * colorNormalizationFactor;
+
+            nanoTimeLightSample = nsNow;
+            lightSampleValid = true;
+            fresh = true;
+        }
+
+        if (fresh)
+        {
+            sampleCount++;
         }
     }
 
+    /** Returns the proximity measurement period configured in PS_MEAS_RATE */
+    protected long nsProximityMeasurementRate()
+    {
+        // R6_25ms is 1, and each subsequent rate doubles the period
+        int rate = parameters.proximityMeasRate.bVal;
+        return rate <= 0 ? 0 : (long)(6.25 * ElapsedTime.MILLIS_IN_NANO) << (rate - 1);
+    }
+
+    /** Returns the most recent raw proximity reading, including its overflow bit */
+    protected synchronized int rawProximity()
+    {
+        updateSample();
+        return this.proximity;
+    }
+
+    @Override
+    public synchronized NormalizedRGBA getNormalizedColors() { updateSample(); return this.colors; }
+
     @Override
-    public NormalizedRGBA getNormalizedColors() { updateColors(); return this.colors; }
+    public synchronized long getSampleCount() { return this.sampleCount; }
 
     @Override
     public synchronized void enableLed(boolean enable)
@@ -93,6 +93,11 @@ public class LynxAnalogInputController extends LynxController implements AnalogI
     public double getAnalogInputVoltage(int port)
         {
         validatePort(port); port -= apiPortFirst;
+        LynxModule.BulkData bulkData = getCachedBulkData(LynxGetADCCommand.class, port);
+        if (bulkData != null)
+            {
+            return bulkData.getAnalogInputVoltage(port) * 0.001;
+            }
         LynxGetADCCommand command = new LynxGetADCCommand(this.getModule(), LynxGetADCCommand.Channel.user(port), LynxGetADCCommand.Mode.ENGINEERING);
         try {
             LynxGetADCResponse response = command.sendReceive();
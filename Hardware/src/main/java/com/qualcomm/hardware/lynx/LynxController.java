@@ -236,6 +236,10 @@ public abstract class LynxController extends LynxCommExceptionHandler implements
         {
         // Subclass hook
         }
+    public void flushPendingWrites()
+        {
+        // Subclass hook
+        }
 
     protected void setHealthyIfArmed()
         {
@@ -373,6 +377,37 @@ public abstract class LynxController extends LynxCommExceptionHandler implements
         // subclass responsibility
         }
 
+    /**
+     * If our module is presently caching bulk data, returns the data with which the indicated
+     * read should be answered; otherwise, returns null, and the read should be carried out
+     * with its own command.
+     * @see LynxModule.BulkCachingMode
+     */
+    protected LynxModule.BulkData getCachedBulkData(Class<? extends LynxCommand> commandClass, int channelZ)
+        {
+        LynxModuleIntf module = getModule();
+        if (module instanceof LynxModule)
+            {
+            LynxModule lynxModule = (LynxModule)module;
+            if (lynxModule.getBulkCachingMode() != LynxModule.BulkCachingMode.OFF)
+                {
+                return lynxModule.recordBulkCachingCommandIntent(commandClass, channelZ);
+                }
+            }
+        return null;
+        }
+
+    /**
+     * Returns whether writes to this controller should presently be deferred until the next
+     * {@link #flushPendingWrites()} rather than being transmitted immediately.
+     * @see LynxModule#setWriteBatchingEnabled(boolean)
+     */
+    protected boolean isWriteBatchingEnabled()
+        {
+        LynxModuleIntf module = getModule();
+        return module instanceof LynxModule && ((LynxModule)module).isWriteBatchingEnabled();
+        }
+
     //------------------------------------------------------------------------------------------------
     // Utility
     //------------------------------------------------------------------------------------------------
@@ -389,6 +424,7 @@ public abstract class LynxController extends LynxCommExceptionHandler implements
     public class PretendLynxModule implements LynxModuleIntf
         {
         boolean isEngaged = true;
+        final LynxTransactionStats pretendTransactionStats = new LynxTransactionStats();
 
         @Override public Manufacturer getManufacturer()
             {
@@ -493,6 +529,18 @@ public abstract class LynxController extends LynxCommExceptionHandler implements
             return LynxController.this.module.getInterfaceBaseCommandNumber(interfaceName);
             }
 
+        @Override
+        public LynxRoundTripEstimator getRoundTripEstimator(Class<? extends LynxMessage> messageClass)
+            {
+            return LynxController.this.module.getRoundTripEstimator(messageClass);
+            }
+
+        @Override
+        public LynxTransactionStats getTransactionStats()
+            {
+            return pretendTransactionStats;   // pretend traffic shouldn't pollute the real module's stats
+            }
+
         @Override
         public boolean isParent()
             {
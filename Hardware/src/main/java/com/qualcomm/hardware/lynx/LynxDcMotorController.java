@@ -107,6 +107,9 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     protected static boolean DEBUG = false;
 
+    /** Freshness of our shadow registers: they don't go stale, they are only ever invalidated */
+    protected static final double msShadowRegisterFreshness = Double.MAX_VALUE;
+
     //----------------------------------------------------------------------------------------------
     // State
     //----------------------------------------------------------------------------------------------
@@ -115,17 +118,30 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
         {
         // We have caches of values that we *could* read from the controller, and need to
         // do so if the cache is invalid
-        LastKnown<Double>                       lastKnownPower              = new LastKnown<Double>();
         LastKnown<Integer>                      lastKnownTargetPosition     = new LastKnown<Integer>();
-        LastKnown<DcMotor.RunMode>              lastKnownMode               = new LastKnown<DcMotor.RunMode>();
-        LastKnown<DcMotor.ZeroPowerBehavior>    lastKnownZeroPowerBehavior  = new LastKnown<DcMotor.ZeroPowerBehavior>();
-        LastKnown<Boolean>                      lastKnownEnable             = new LastKnown<Boolean>();
+        LastKnown<Integer>                      lastKnownTargetTolerance    = new LastKnown<Integer>();
+        LastKnown<Integer>                      lastKnownVelocity           = new LastKnown<Integer>();
+
+        // These, on the other hand, are shadow registers: the module only ever changes them
+        // at our behest, so once known they stay known (updated as each set succeeds) until
+        // the module is reset, put into fail safe, or asks for attention, each of which forgetLastKnown()s.
+        LastKnown<Double>                       lastKnownPower              = new LastKnown<Double>(msShadowRegisterFreshness);
+        LastKnown<DcMotor.RunMode>              lastKnownMode               = new LastKnown<DcMotor.RunMode>(msShadowRegisterFreshness);
+        LastKnown<DcMotor.ZeroPowerBehavior>    lastKnownZeroPowerBehavior  = new LastKnown<DcMotor.ZeroPowerBehavior>(msShadowRegisterFreshness);
+        LastKnown<Boolean>                      lastKnownEnable             = new LastKnown<Boolean>(msShadowRegisterFreshness);
 
         // The remainder of the data is authoritative, here
         MotorConfigurationType                  motorType = MotorConfigurationType.getUnspecifiedMotorType();
         MotorConfigurationType                  internalMotorType = null;
         Map<DcMotor.RunMode, ExpansionHubMotorControllerParamsState> desiredPIDParams = new ConcurrentHashMap<DcMotor.RunMode, ExpansionHubMotorControllerParamsState>();
         Map<DcMotor.RunMode, ExpansionHubMotorControllerParamsState> originalPIDParams = new ConcurrentHashMap<DcMotor.RunMode, ExpansionHubMotorControllerParamsState>();
+
+        // Writes deferred by write batching, or null if none are pending. Power and velocity
+        // both set the same target in the module, so at most one of those two is ever pending.
+        Double                                  pendingPower                = null;
+        Integer                                 pendingVelocity             = null;
+        Integer                                 pendingTargetPosition       = null;
+        int                                     pendingTargetTolerance      = LynxConstants.DEFAULT_TARGET_POSITION_TOLERANCE;
         }
 
     // this is indexed from zero, not 1 as it is in the legacy and modern motor controllers
@@ -148,11 +164,12 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     @Override public void initializeHardware() throws RobotCoreException, InterruptedException
         {
+        // Forget first, so that what we set here is actually transmitted, and so seeds our shadow registers
+        forgetLastKnown();
+        //
         floatHardware();
         runWithoutEncoders();
         //
-        forgetLastKnown();
-        //
         for (int motor = 0; motor <= apiMotorLast-apiMotorFirst; motor++)
             {
             updateMotorParams(motor);
@@ -181,11 +198,46 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
             motor.lastKnownMode.invalidate();
             motor.lastKnownPower.invalidate();
             motor.lastKnownTargetPosition.invalidate();
+            motor.lastKnownTargetTolerance.invalidate();
+            motor.lastKnownVelocity.invalidate();
             motor.lastKnownZeroPowerBehavior.invalidate();
             motor.lastKnownEnable.invalidate();
             }
         }
 
+    /**
+     * Transmits the last power, velocity, and target position written to each motor while
+     * write batching was enabled, skipping any that are unchanged from what was last sent.
+     * @see LynxModule#setWriteBatchingEnabled(boolean)
+     */
+    @Override public synchronized void flushPendingWrites()
+        {
+        for (int motorZ = 0; motorZ < motors.length; motorZ++)
+            {
+            MotorProperties motor = motors[motorZ];
+
+            // Target position goes first, as entering RUN_TO_POSITION needs it set before power is applied
+            if (motor.pendingTargetPosition != null)
+                {
+                int position = motor.pendingTargetPosition;
+                motor.pendingTargetPosition = null;
+                internalSetMotorTargetPosition(motorZ, position, motor.pendingTargetTolerance, false);
+                }
+            if (motor.pendingPower != null)
+                {
+                double power = motor.pendingPower;
+                motor.pendingPower = null;
+                internalSetMotorPower(motorZ, power);
+                }
+            if (motor.pendingVelocity != null)
+                {
+                int velocity = motor.pendingVelocity;
+                motor.pendingVelocity = null;
+                internalSetMotorVelocity(motorZ, velocity, false);
+                }
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // HardwareDevice interface
     //----------------------------------------------------------------------------------------------
@@ -214,15 +266,17 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     void internalSetMotorEnable(int motorZ, boolean enable)
         {
-        if (motors[motorZ].lastKnownEnable.updateValue(enable))
+        if (!motors[motorZ].lastKnownEnable.isValue(enable))
             {
             LynxCommand command = new LynxSetMotorChannelEnableCommand(this.getModule(), motorZ, enable);
             try {
                 if (DEBUG) RobotLog.vv(TAG,"setMotorEnable mod=%d motor=%d enable=%s", getModuleAddress(), motorZ, ((Boolean) enable).toString());
                 command.send();
+                motors[motorZ].lastKnownEnable.setValue(enable);
                 }
             catch (LynxNackException e)
                 {
+                motors[motorZ].lastKnownEnable.invalidate();
                 LynxNack.ReasonCode reason = e.getNack().getNackReasonCode();
                 if (reason == LynxNack.ReasonCode.MOTOR_NOT_CONFIG_BEFORE_ENABLED)
                     {
@@ -235,6 +289,7 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
                 }
             catch (InterruptedException|RuntimeException e)
                 {
+                motors[motorZ].lastKnownEnable.invalidate();
                 handleException(e); 
                 }
             }
@@ -458,12 +513,25 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
     @Override public synchronized void setMotorPower(int motor, double apiMotorPower)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
-        internalSetMotorPower(motor, apiMotorPower);
+        if (isWriteBatchingEnabled())
+            {
+            motors[motor].pendingPower = Range.clip(apiMotorPower, apiPowerFirst, apiPowerLast);
+            motors[motor].pendingVelocity = null;
+            }
+        else
+            {
+            internalSetMotorPower(motor, apiMotorPower);
+            }
         }
 
     @Override public synchronized double getMotorPower(int motor)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
+        Double pendingPower = motors[motor].pendingPower;
+        if (pendingPower != null)
+            {
+            return pendingPower;
+            }
         return internalGetMotorPower(motor);
         }
 
@@ -493,7 +561,7 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     void internalSetZeroPowerBehavior(int motorZ, DcMotor.ZeroPowerBehavior behavior)
         {
-        if (motors[motorZ].lastKnownZeroPowerBehavior.updateValue(behavior))
+        if (!motors[motorZ].lastKnownZeroPowerBehavior.isValue(behavior))
             {
             DcMotor.RunMode runMode = internalGetMotorChannelMode(motorZ);
             LynxCommand command = new LynxSetMotorChannelModeCommand(this.getModule(), motorZ, runMode, behavior);
@@ -501,9 +569,11 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
                 if (DEBUG) RobotLog.vv(TAG,"setZeroBehavior mod=%d motor=%d zero=%s",
                                        getModuleAddress(), motorZ, behavior.toString());
                 command.send();
+                motors[motorZ].lastKnownZeroPowerBehavior.setValue(behavior);
                 }
             catch (InterruptedException|RuntimeException|LynxNackException e)
                 {
+                motors[motorZ].lastKnownZeroPowerBehavior.invalidate();
                 handleException(e);
                 }
             }
@@ -516,9 +586,10 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     void internalSetMotorPower(int motorZ, double apiPower, boolean forceUpdate)
         {
-        double power = Range.clip(apiPower, apiPowerFirst, apiPowerLast);
+        final double clippedPower = Range.clip(apiPower, apiPowerFirst, apiPowerLast);
+        double power = clippedPower;
         int iPower = 0;
-        if (motors[motorZ].lastKnownPower.updateValue(power) || forceUpdate)
+        if (!motors[motorZ].lastKnownPower.isValue(clippedPower) || forceUpdate)
             {
             DcMotor.RunMode mode = internalGetPublicMotorMode(motorZ);
             LynxCommand command = null;
@@ -552,12 +623,18 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
                 if (command != null)
                     {
                     if (DEBUG) RobotLog.vv(TAG, "setMotorPower: mod=%d motor=%d iPower=%d", getModuleAddress(), motorZ, iPower);
+                    motors[motorZ].lastKnownVelocity.invalidate();
                     command.send();
+                    }
+                motors[motorZ].lastKnownPower.setValue(clippedPower);
+                if (command != null)
+                    {
                     internalSetMotorEnable(motorZ, true);
                     }
                 }
             catch (InterruptedException|RuntimeException|LynxNackException e)
                 {
+                motors[motorZ].lastKnownPower.invalidate();
                 handleException(e);
                 }
             }
@@ -615,6 +692,11 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
     @Override public synchronized boolean isBusy(int motor)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
+        LynxModule.BulkData bulkData = getCachedBulkData(LynxIsMotorAtTargetCommand.class, motor);
+        if (bulkData != null)
+            {
+            return bulkData.isMotorBusy(motor);
+            }
         LynxIsMotorAtTargetCommand command = new LynxIsMotorAtTargetCommand(this.getModule(), motor);
         try {
             LynxIsMotorAtTargetResponse response = command.sendReceive();
@@ -663,19 +745,42 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
     @Override public synchronized void setMotorTargetPosition(int motor, int position, int tolerance)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
-        LynxSetMotorTargetPositionCommand command = new LynxSetMotorTargetPositionCommand(this.getModule(), motor, position, tolerance);
-        try {
-            command.send();
+        if (isWriteBatchingEnabled())
+            {
+            motors[motor].pendingTargetPosition = position;
+            motors[motor].pendingTargetTolerance = tolerance;
             }
-        catch (InterruptedException|RuntimeException|LynxNackException e)
+        else
             {
-            handleException(e);
+            internalSetMotorTargetPosition(motor, position, tolerance, true);
+            }
+        }
+
+    void internalSetMotorTargetPosition(int motorZ, int position, int tolerance, boolean forceUpdate)
+        {
+        boolean changed = motors[motorZ].lastKnownTargetPosition.updateValue(position);
+        changed = motors[motorZ].lastKnownTargetTolerance.updateValue(tolerance) || changed;
+        if (changed || forceUpdate)
+            {
+            LynxSetMotorTargetPositionCommand command = new LynxSetMotorTargetPositionCommand(this.getModule(), motorZ, position, tolerance);
+            try {
+                command.send();
+                }
+            catch (InterruptedException|RuntimeException|LynxNackException e)
+                {
+                handleException(e);
+                }
             }
         }
 
     @Override public synchronized int getMotorTargetPosition(int motor)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
+        Integer pendingTargetPosition = motors[motor].pendingTargetPosition;
+        if (pendingTargetPosition != null)
+            {
+            return pendingTargetPosition;
+            }
         LynxGetMotorTargetPositionCommand command = new LynxGetMotorTargetPositionCommand(this.getModule(), motor);
         try {
             LynxGetMotorTargetPositionResponse response = command.sendReceive();
@@ -691,6 +796,11 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
     @Override public synchronized int getMotorCurrentPosition(int motor)
         {
         this.validateMotor(motor); motor -= apiMotorFirst;
+        LynxModule.BulkData bulkData = getCachedBulkData(LynxGetMotorEncoderPositionCommand.class, motor);
+        if (bulkData != null)
+            {
+            return bulkData.getMotorCurrentPosition(motor);
+            }
         LynxGetMotorEncoderPositionCommand command = new LynxGetMotorEncoderPositionCommand(this.getModule(), motor);
         try {
             LynxGetMotorEncoderPositionResponse response = command.sendReceive();
@@ -724,15 +834,33 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
             LynxSetMotorTargetVelocityCommand.apiVelocityFirst,
             LynxSetMotorTargetVelocityCommand.apiVelocityLast);
 
-        try {
-            LynxCommand command = new LynxSetMotorTargetVelocityCommand(this.getModule(), motor, iTicksPerSecond);
-            if (DEBUG) RobotLog.vv(TAG, "setMotorVelocity: mod=%d motor=%d iPower=%d", getModuleAddress(), motor, iTicksPerSecond);
-            command.send();
-            internalSetMotorEnable(motor, true);
+        if (isWriteBatchingEnabled())
+            {
+            motors[motor].pendingVelocity = iTicksPerSecond;
+            motors[motor].pendingPower = null;
             }
-        catch (InterruptedException|RuntimeException|LynxNackException e)
+        else
             {
-            handleException(e);
+            internalSetMotorVelocity(motor, iTicksPerSecond, true);
+            }
+        }
+
+    void internalSetMotorVelocity(int motorZ, int iTicksPerSecond, boolean forceUpdate)
+        {
+        if (motors[motorZ].lastKnownVelocity.updateValue(iTicksPerSecond) || forceUpdate)
+            {
+            try {
+                LynxCommand command = new LynxSetMotorTargetVelocityCommand(this.getModule(), motorZ, iTicksPerSecond);
+                if (DEBUG) RobotLog.vv(TAG, "setMotorVelocity: mod=%d motor=%d iPower=%d", getModuleAddress(), motorZ, iTicksPerSecond);
+                // The velocity target supersedes whatever power was last set
+                motors[motorZ].lastKnownPower.invalidate();
+                command.send();
+                internalSetMotorEnable(motorZ, true);
+                }
+            catch (InterruptedException|RuntimeException|LynxNackException e)
+                {
+                handleException(e);
+                }
             }
         }
 
@@ -763,6 +891,11 @@ public class LynxDcMotorController extends LynxController implements DcMotorCont
 
     int internalGetMotorTicksPerSecond(int motorZ)
         {
+        LynxModule.BulkData bulkData = getCachedBulkData(LynxGetBulkInputDataCommand.class, motorZ);
+        if (bulkData != null)
+            {
+            return bulkData.getMotorVelocity(motorZ);
+            }
         LynxGetBulkInputDataCommand command = new LynxGetBulkInputDataCommand(this.getModule());
         try {
             LynxGetBulkInputDataResponse response = command.sendReceive();
@@ -204,7 +204,14 @@ public class LynxDigitalChannelController extends LynxController implements Digi
             }
         else
             {
-            // For input pins, we ask the controller, then remember what he said
+            // For input pins, we ask the controller (or his bulk cache), then remember what he said
+            LynxModule.BulkData bulkData = getCachedBulkData(LynxGetSingleDIOInputCommand.class, pin);
+            if (bulkData != null)
+                {
+                boolean result = bulkData.getDigitalChannelState(pin);
+                pins[pin].lastKnownState.setValue(result);
+                return result;
+                }
             LynxGetSingleDIOInputCommand command = new LynxGetSingleDIOInputCommand(this.getModule(), pin);
             try {
                 LynxGetSingleDIOInputResponse response = command.sendReceive();
@@ -0,0 +1,389 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataCommand;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataResponse;
+import com.qualcomm.robotcore.hardware.configuration.LynxConstants;
+
+import org.firstinspires.ftc.robotcore.internal.system.Misc;
+
+/**
+ * {@link LynxEncoderVelocityEstimator} estimates the velocity and acceleration of each of the
+ * motors on a module from its encoder positions, which are sampled at a fixed rate in the
+ * background using the module's {@link LynxPollingScheduler}. Each sample is stamped with the
+ * {@link System#nanoTime()} at the midpoint of the bulk read transaction that fetched it, so
+ * the estimates are unaffected by jitter in when the caller's loop happens to run.
+ *
+ * Estimates are computed on the polling thread as each sample arrives and are published as
+ * immutable {@link Estimate}s, so reading them never touches the USB bus.
+ *
+ * @see LynxModule#getPollingScheduler()
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxEncoderVelocityEstimator
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    public enum Filter
+        {
+        /** differences of the last two (for acceleration, three) samples: least lag, most noise */
+        FINITE_DIFFERENCE,
+        /** least-squares quadratic fit over the most recent window of samples, evaluated at the newest */
+        LEAST_SQUARES,
+        /** an alpha-beta(-gamma) tracking filter, updated with each sample */
+        ALPHA_BETA
+        }
+
+    /** An immutable velocity estimate for one motor */
+    public static class Estimate
+        {
+        /** encoder position of the newest sample, in ticks */
+        public final int    position;
+        /** in encoder ticks per second */
+        public final double velocity;
+        /** in encoder ticks per second per second */
+        public final double acceleration;
+        /** the time to which the estimate refers */
+        public final long   nanoTime;
+        /** upper bound on how far nanoTime may lie from the true time of the encoder reading */
+        public final long   nsUncertainty;
+
+        public Estimate(int position, double velocity, double acceleration, long nanoTime, long nsUncertainty)
+            {
+            this.position = position;
+            this.velocity = velocity;
+            this.acceleration = acceleration;
+            this.nanoTime = nanoTime;
+            this.nsUncertainty = nsUncertainty;
+            }
+
+        /**
+         * Returns a bound on the latency of this estimate: how old, at most, the encoder
+         * reading to which it refers might now be.
+         */
+        public double getMsLatencyBound()
+            {
+            return (System.nanoTime() - nanoTime + nsUncertainty) * 1e-6;
+            }
+
+        @Override public String toString()
+            {
+            return Misc.formatForUser("pos=%d vel=%.1f acc=%.1f", position, velocity, acceleration);
+            }
+        }
+
+    /** The history and filter state of one motor. Only ever touched while holding the estimator's lock */
+    protected class MotorHistory
+        {
+        final long[] nanoTimes = new long[capacity];
+        final int[]  positions = new int[capacity];
+        int          count = 0;
+        int          next = 0;
+
+        // alpha-beta-gamma state; relative to the newest sample
+        double       abPosition, abVelocity, abAcceleration;
+
+        volatile Estimate estimate = null;
+
+        void reset()
+            {
+            count = 0;
+            next = 0;
+            estimate = null;
+            }
+
+        /** index of the sample 'back' samples before the newest */
+        int index(int back)
+            {
+            return (next - 1 - back + 2 * capacity) % capacity;
+            }
+
+        void add(long nanoTime, int position, long nsUncertainty)
+            {
+            nanoTimes[next] = nanoTime;
+            positions[next] = position;
+            next = (next + 1) % capacity;
+            count = Math.min(count + 1, capacity);
+
+            switch (filter)
+                {
+                case LEAST_SQUARES:     estimate = leastSquares(nsUncertainty); break;
+                case ALPHA_BETA:        estimate = alphaBeta(nsUncertainty); break;
+                default:                estimate = finiteDifference(nsUncertainty); break;
+                }
+            }
+
+        /** Returns null if there are too few samples to say anything about velocity */
+        Estimate finiteDifference(long nsUncertainty)
+            {
+            int i0 = index(0);
+            if (count < 2)
+                {
+                return null;
+                }
+            int i1 = index(1);
+            double dt01 = (nanoTimes[i0] - nanoTimes[i1]) * 1e-9;
+            double v01  = (positions[i0] - (long)positions[i1]) / dt01;
+            double acceleration = 0;
+            if (count >= 3)
+                {
+                int i2 = index(2);
+                double dt12 = (nanoTimes[i1] - nanoTimes[i2]) * 1e-9;
+                double v12  = (positions[i1] - (long)positions[i2]) / dt12;
+                acceleration = (v01 - v12) / ((dt01 + dt12) * 0.5);
+                }
+            // A difference quotient is the velocity at the middle of its interval
+            long nanoTime = nanoTimes[i1] + (nanoTimes[i0] - nanoTimes[i1]) / 2;
+            return new Estimate(positions[i0], v01, acceleration, nanoTime, nsUncertainty);
+            }
+
+        Estimate leastSquares(long nsUncertainty)
+            {
+            int n = Math.min(count, windowSize);
+            if (n < 3)
+                {
+                return finiteDifference(nsUncertainty);
+                }
+
+            // Fit p = c0 + c1*t + c2*t^2, with t and p relative to the newest sample so that the
+            // normal equations are well conditioned and c1, 2*c2 are the velocity and acceleration
+            int i0 = index(0);
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0, r0 = 0, r1 = 0, r2 = 0;
+            for (int back = 0; back < n; back++)
+                {
+                int i = index(back);
+                double t = (nanoTimes[i] - nanoTimes[i0]) * 1e-9;
+                double p = positions[i] - (long)positions[i0];
+                double t2 = t * t;
+                s0 += 1;     s1 += t;      s2 += t2;     s3 += t2 * t;  s4 += t2 * t2;
+                r0 += p;     r1 += p * t;  r2 += p * t2;
+                }
+            double det = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+            if (Math.abs(det) < 1e-30)
+                {
+                return finiteDifference(nsUncertainty);
+                }
+            double c1 = (s0 * (r1 * s4 - s3 * r2) - r0 * (s1 * s4 - s3 * s2) + s2 * (s1 * r2 - r1 * s2)) / det;
+            double c2 = (s0 * (s2 * r2 - r1 * s3) - s1 * (s1 * r2 - r1 * s2) + r0 * (s1 * s3 - s2 * s2)) / det;
+            return new Estimate(positions[i0], c1, 2 * c2, nanoTimes[i0], nsUncertainty);
+            }
+
+        Estimate alphaBeta(long nsUncertainty)
+            {
+            int i0 = index(0);
+            if (count < 2)
+                {
+                abPosition = positions[i0];
+                abVelocity = 0;
+                abAcceleration = 0;
+                return null;
+                }
+            double dt = (nanoTimes[i0] - nanoTimes[index(1)]) * 1e-9;
+
+            // Predict forward to this sample, then correct by the residual
+            double predicted = abPosition + abVelocity * dt + abAcceleration * dt * dt * 0.5;
+            abVelocity += abAcceleration * dt;
+            double residual = positions[i0] - predicted;
+            abPosition      = predicted + alpha * residual;
+            abVelocity     += beta * residual / dt;
+            abAcceleration += 2 * gamma * residual / (dt * dt);
+            return new Estimate(positions[i0], abVelocity, abAcceleration, nanoTimes[i0], nsUncertainty);
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "LynxEncoderVelocity";
+
+    protected final LynxModule      module;
+    protected final String          pollName;
+    protected final int             capacity;
+    protected final MotorHistory[]  motors = new MotorHistory[LynxConstants.NUMBER_OF_MOTORS];
+
+    protected Filter                filter = Filter.LEAST_SQUARES;
+    protected int                   windowSize = 8;
+    protected double                alpha = 0.5;
+    protected double                beta = 0.2;
+    protected double                gamma = 0.02;
+
+    protected volatile LynxPollingScheduler.Snapshot<LynxModule.BulkData> snapshot = null;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public LynxEncoderVelocityEstimator(LynxModule module)
+        {
+        this(module, 32);
+        }
+
+    /** @param capacity the number of samples of history retained per motor; bounds the least-squares window */
+    public LynxEncoderVelocityEstimator(LynxModule module, int capacity)
+        {
+        this.module = module;
+        this.pollName = Misc.formatInvariant("encoderVelocity@%x", System.identityHashCode(this));
+        this.capacity = Math.max(3, capacity);
+        for (int i = 0; i < motors.length; i++)
+            {
+            motors[i] = new MotorHistory();
+            }
+        }
+
+    @Override public String toString()
+        {
+        return Misc.formatForUser("%s(%s)", getClass().getSimpleName(), module);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Configuration
+    //----------------------------------------------------------------------------------------------
+
+    public synchronized void setFilter(Filter filter)
+        {
+        this.filter = filter;
+        resetHistory();
+        }
+
+    public synchronized Filter getFilter()
+        {
+        return filter;
+        }
+
+    /** Sets the number of samples over which the {@link Filter#LEAST_SQUARES} fit is made */
+    public synchronized void setWindowSize(int windowSize)
+        {
+        this.windowSize = Math.max(3, Math.min(capacity, windowSize));
+        }
+
+    public synchronized int getWindowSize()
+        {
+        return windowSize;
+        }
+
+    /** Sets the position, velocity and acceleration gains of the {@link Filter#ALPHA_BETA} filter */
+    public synchronized void setAlphaBetaGamma(double alpha, double beta, double gamma)
+        {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        resetHistory();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Starts sampling the encoders at the indicated rate. Each sample is a single bulk read,
+     * which is also published to the returned snapshot for callers who want the other inputs.
+     * Sampling stops when the opmode does, or on {@link #stop()}.
+     */
+    public LynxPollingScheduler.Snapshot<LynxModule.BulkData> start(double hz)
+        {
+        resetHistory();
+        snapshot = module.getPollingScheduler().schedule(pollName, hz, new Supplier<LynxModule.BulkData>()
+            {
+            @Override public LynxModule.BulkData get() throws InterruptedException, LynxNackException
+                {
+                long nsBefore = System.nanoTime();
+                LynxGetBulkInputDataResponse response = new LynxGetBulkInputDataCommand(module).sendReceive();
+                long nsAfter = System.nanoTime();
+                LynxModule.BulkData bulkData = new LynxModule.BulkData(response, nsAfter, false);
+                addSample(bulkData, nsBefore, nsAfter);
+                return bulkData;
+                }
+            });
+        return snapshot;
+        }
+
+    public void stop()
+        {
+        module.getPollingScheduler().cancel(pollName);
+        snapshot = null;
+        }
+
+    public boolean isRunning()
+        {
+        LynxPollingScheduler.Snapshot<LynxModule.BulkData> snapshot = this.snapshot;
+        return snapshot != null && snapshot == module.getPollingScheduler().getSnapshot(pollName);
+        }
+
+    /**
+     * Discards the sample history of all motors. Call this after resetting encoders, lest
+     * the jump in position be mistaken for motion.
+     */
+    public synchronized void resetHistory()
+        {
+        for (MotorHistory motor : motors)
+            {
+            motor.reset();
+            }
+        }
+
+    /**
+     * Returns the most recent estimate for the indicated motor, or null if fewer than two
+     * samples have yet been taken.
+     * @param motorZ the zero-based motor port
+     */
+    public Estimate getEstimate(int motorZ)
+        {
+        return motors[motorZ].estimate;
+        }
+
+    /** Returns the most recent velocity of the indicated motor, in ticks per second, or zero if unknown */
+    public double getVelocity(int motorZ)
+        {
+        Estimate estimate = getEstimate(motorZ);
+        return estimate == null ? 0 : estimate.velocity;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Sampling
+    //----------------------------------------------------------------------------------------------
+
+    protected synchronized void addSample(LynxModule.BulkData bulkData, long nsBefore, long nsAfter)
+        {
+        // The encoders were latched somewhere within the transaction; we take the midpoint
+        long nanoTime = nsBefore + (nsAfter - nsBefore) / 2;
+        long nsUncertainty = (nsAfter - nsBefore) / 2;
+        for (int motorZ = 0; motorZ < motors.length; motorZ++)
+            {
+            motors[motorZ].add(nanoTime, bulkData.getMotorCurrentPosition(motorZ), nsUncertainty);
+            }
+        }
+    }
@@ -164,8 +164,13 @@ public class LynxI2cColorRangeSensor extends AMSColorSensorImpl implements Dista
     // Raw sensor data
     //----------------------------------------------------------------------------------------------
 
-    public int rawOptical()
+    public synchronized int rawOptical()
         {
+        // When proximity is enabled, PDATA is read in the same burst as the colors
+        if (isProximityEnabled() && updateSample())
+            {
+            return sampleProximity;
+            }
         return readUnsignedShort(Register.PDATA, ByteOrder.LITTLE_ENDIAN);
         }
     }
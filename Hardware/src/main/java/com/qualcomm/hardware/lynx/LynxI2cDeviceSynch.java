@@ -37,6 +37,7 @@ import android.support.annotation.Nullable;
 
 import com.qualcomm.hardware.R;
 import com.qualcomm.hardware.lynx.commands.LynxCommand;
+import com.qualcomm.hardware.lynx.commands.core.LynxI2cConfigureChannelCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxI2cReadMultipleBytesCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxI2cReadSingleByteCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxI2cReadStatusQueryCommand;
@@ -51,13 +52,16 @@ import com.qualcomm.robotcore.hardware.I2cAddr;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynchReadHistory;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynchReadHistoryImpl;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynchSimple;
+import com.qualcomm.robotcore.hardware.I2cReadHistoryRing;
 import com.qualcomm.robotcore.hardware.I2cWaitControl;
 import com.qualcomm.robotcore.hardware.TimestampedData;
 import com.qualcomm.robotcore.hardware.TimestampedI2cData;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.Util;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by bob on 2016-03-12.
@@ -77,6 +81,16 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
     private String      loggingTag;
     private String      name;
     private int         msBusyWait = 3;
+    private LynxI2cConfigureChannelCommand.SpeedCode busSpeed = LynxI2cConfigureChannelCommand.SpeedCode.STANDARD_100K;
+    private long        nsWriteCompletionExpected = 0;  // when the last write we issued should be done on the bus
+    private volatile int lastStatusQueryCount = 0;
+    private final AtomicLong statusQueryCount = new AtomicLong(0);
+    private final AtomicLong transactionCount = new AtomicLong(0);
+
+    /** The first re-poll after the predicted completion time is this soon; the interval then doubles up to msBusyWait */
+    protected static final long nsRepollIntervalMin = 250 * 1000;
+    /** Allowance for the firmware's own processing of a transaction, over and above the bus time */
+    protected static final long nsFirmwareOverhead  = 100 * 1000;
     private final I2cDeviceSynchReadHistoryImpl readHistory = new I2cDeviceSynchReadHistoryImpl();
 
     protected LynxUsbUtil.Placeholder<TimestampedData> readTimeStampedPlaceholder = new LynxUsbUtil.Placeholder<TimestampedData>(TAG, "readTimestamped");
@@ -213,6 +227,16 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
         return readHistory.getHistoryQueue();
         }
 
+    @Override public void setHistoryRing(@Nullable I2cReadHistoryRing ring)
+        {
+        readHistory.setHistoryRing(ring);
+        }
+
+    @Override @Nullable public I2cReadHistoryRing getHistoryRing()
+        {
+        return readHistory.getHistoryRing();
+        }
+
     //----------------------------------------------------------------------------------------------
     // I2cDeviceSynch API methods
     //----------------------------------------------------------------------------------------------
@@ -282,7 +306,7 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
         if (data.length > 0) // paranoia, but safe
             {
             // For register-based I2c devices: convention: first byte in a write is the initial register number
-            byte[] payload = Util.concatenateByteArrays(new byte[] {(byte)ireg}, data);
+            final byte[] payload = Util.concatenateByteArrays(new byte[] {(byte)ireg}, data);
 
             // We use the single-byte case when we can out of paranoia about the LynxI2cWriteMultipleBytesCommand
             // not being able to handle a byte count of one (that has not been verified with the firmware
@@ -296,6 +320,8 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
                     @Override public Object get() throws InterruptedException, RobotCoreException, LynxNackException
                         {
                         sendI2cWriteTx(writeTx);
+                        // The module only starts on the bus once it has accepted the command
+                        nsWriteCompletionExpected = System.nanoTime() + nsWriteBusTime(payload.length);
                         internalWaitForWriteCompletions(waitControl);
                         return null;
                         }
@@ -339,6 +365,112 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
         return false;
         }
 
+    //----------------------------------------------------------------------------------------------
+    // Completion timing
+    //
+    // Rather than polling the status of a transaction every few milliseconds from the moment
+    // it's issued, we estimate when it will be finished on the bus from the number of bytes
+    // involved and the bus speed, and issue the first status query then. Usually, that's the
+    // only one needed.
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Informs us of the speed at which the bus has been configured (by default, that's 100kHz),
+     * which is used to predict when transactions will complete. This does not itself reconfigure
+     * the bus.
+     */
+    public void setBusSpeed(LynxI2cConfigureChannelCommand.SpeedCode busSpeed)
+        {
+        this.busSpeed = busSpeed;
+        }
+
+    public LynxI2cConfigureChannelCommand.SpeedCode getBusSpeed()
+        {
+        return this.busSpeed;
+        }
+
+    protected int getBusSpeedHz()
+        {
+        switch (busSpeed)
+            {
+            case FAST_400K:     return 400000;
+            case FASTPLUS_1M:   return 1000000;
+            case HIGH_3_4M:     return 3400000;
+            default:            return 100000;
+            }
+        }
+
+    /**
+     * Returns how long the indicated number of bytes (including address bytes) takes on the bus.
+     * Each byte costs nine clocks (eight data bits and an ack), plus one more for each start or
+     * stop condition.
+     */
+    protected long nsBusTime(int cbOnBus, int cStartStop)
+        {
+        long clocks = cbOnBus * 9L + cStartStop;
+        return clocks * 1000000000L / getBusSpeedHz() + nsFirmwareOverhead;
+        }
+
+    /** Time on the bus of a write of the indicated number of bytes (including the register number) */
+    protected long nsWriteBusTime(int cbWrite)
+        {
+        return nsBusTime(1 + cbWrite, 2);
+        }
+
+    /** Time on the bus of a read of the indicated number of bytes (not preceded by a write) */
+    protected long nsReadBusTime(int cbRead)
+        {
+        return nsBusTime(1 + cbRead, 2);
+        }
+
+    /** Time on the bus of a combined write of a register number and read of the indicated number of bytes */
+    protected long nsWriteReadBusTime(int cbRead)
+        {
+        return nsBusTime(1 + 1 + 1 + cbRead, 3);
+        }
+
+    protected static void sleepUntil(long nsDeadline) throws InterruptedException
+        {
+        long nsRemaining = nsDeadline - System.nanoTime();
+        if (nsRemaining > 0)
+            {
+            Thread.sleep(nsRemaining / ElapsedTime.MILLIS_IN_NANO, (int)(nsRemaining % ElapsedTime.MILLIS_IN_NANO));
+            }
+        }
+
+    /** Returns the next re-poll interval given the current one */
+    protected long nextRepollInterval(long nsInterval)
+        {
+        return Math.min(nsInterval * 2, msBusyWait * ElapsedTime.MILLIS_IN_NANO);
+        }
+
+    protected void noteStatusQueries(int count)
+        {
+        lastStatusQueryCount = count;
+        statusQueryCount.addAndGet(count);
+        transactionCount.incrementAndGet();
+        }
+
+    /** Returns how many status queries were needed to complete the most recent read or awaited write */
+    public int getLastStatusQueryCount()
+        {
+        return lastStatusQueryCount;
+        }
+
+    /** Returns the mean number of status queries needed to complete reads and awaited writes */
+    public double getMeanStatusQueriesPerTransaction()
+        {
+        long transactions = transactionCount.get();
+        return transactions == 0 ? 0 : statusQueryCount.get() / (double)transactions;
+        }
+
+    public void resetStatusQueryCounts()
+        {
+        statusQueryCount.set(0);
+        transactionCount.set(0);
+        lastStatusQueryCount = 0;
+        }
+
     //----------------------------------------------------------------------------------------------
     // I2cDeviceSynch API support methods
     //----------------------------------------------------------------------------------------------
@@ -382,24 +514,39 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
         if (waitControl == I2cWaitControl.WRITTEN)
             {
             boolean keepTrying = true;
+            int queries = 0;
+            long nsRepollInterval = nsRepollIntervalMin;
+            try { sleepUntil(nsWriteCompletionExpected); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
             while (keepTrying)
                 {
+                queries++;
                 final LynxI2cWriteStatusQueryCommand writeStatus = new LynxI2cWriteStatusQueryCommand(this.getModule(), this.bus);
                 try {
                     LynxI2cWriteStatusQueryResponse response = writeStatus.sendReceive();
                     if (response.isStatusOk())
                         {
+                        // The write has finished: there's no need for a further query just to be told so
                         setHealthyIfArmed();
                         }
+                    else
+                        {
+                        // The write finished, but failed on the bus (eg: it wasn't acknowledged)
+                        response.logResponse();
+                        RobotLog.ww(loggingTag, "write failed: i2cStatus=0x%02x", response.getI2cStatus());
+                        setHealthStatus(HealthStatus.UNHEALTHY);
+                        }
+                    keepTrying = false;
                     }
                 catch (LynxNackException e)
                     {
                     switch (e.getNack().getNackReasonCode())
                         {
                         case I2C_NO_RESULTS_PENDING:
-                            return;
+                            keepTrying = false;
+                            break;
                         case I2C_OPERATION_IN_PROGRESS:
-                            try { Thread.sleep(msBusyWait); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+                            try { sleepUntil(System.nanoTime() + nsRepollInterval); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+                            nsRepollInterval = nextRepollInterval(nsRepollInterval);
                             continue;
                         default:
                             handleException(e);
@@ -413,17 +560,31 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
                     keepTrying = false;
                     }
                 }
+            noteStatusQueries(queries);
             }
         }
 
     protected TimestampedData pollForReadResult(I2cAddr i2cAddr, int ireg, int creg)
+        {
+        return pollForReadResult(i2cAddr, ireg, creg, 0);
+        }
+
+    /**
+     * Polls for the result of a read, issuing the first status query no earlier than
+     * nsExpectedCompletion (a {@link System#nanoTime()} value).
+     */
+    protected TimestampedData pollForReadResult(I2cAddr i2cAddr, int ireg, int creg, long nsExpectedCompletion)
         {
         // Poll until the data is available
         boolean keepTrying = true;
         LynxI2cDeviceSynch deviceHavingProblems = null;
+        int queries = 0;
+        long nsRepollInterval = nsRepollIntervalMin;
+        try { sleepUntil(nsExpectedCompletion); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
 
         while (keepTrying)
             {
+            queries++;
             LynxI2cReadStatusQueryCommand readStatus = new LynxI2cReadStatusQueryCommand(this.getModule(), this.bus, creg);
             try {
                 LynxI2cReadStatusQueryResponse response = readStatus.sendReceive();
@@ -439,6 +600,7 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
                 // Return real data if we've got it
                 if (result.data.length == creg)
                     {
+                    noteStatusQueries(queries);
                     readStatusQueryPlaceholder.reset();
                     readHistory.addToHistoryQueue(result);
                     setHealthyIfArmed();
@@ -456,7 +618,8 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
                     {
                     case I2C_MASTER_BUSY:               // TODO: REVIEW: is this ever actually returned in this situation?
                     case I2C_OPERATION_IN_PROGRESS:
-                        try { Thread.sleep(msBusyWait); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+                        try { sleepUntil(System.nanoTime() + nsRepollInterval); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+                        nsRepollInterval = nextRepollInterval(nsRepollInterval);
                         continue;
                     case I2C_NO_RESULTS_PENDING:
                         // This is an internal error of some sort
@@ -477,6 +640,7 @@ public abstract class LynxI2cDeviceSynch extends LynxController implements I2cDe
                 keepTrying = false;
                 }
             }
+        noteStatusQueries(queries);
         return readStatusQueryPlaceholder.log(TimestampedI2cData.makeFakeData(deviceHavingProblems, i2cAddr, ireg, creg));
         }
 
@@ -64,6 +64,7 @@ public class LynxI2cDeviceSynchV1 extends LynxI2cDeviceSynch
                 @Override public TimestampedData get() throws InterruptedException, RobotCoreException, LynxNackException
                 {
                     sendI2cWriteTx(writeTx);
+                    long nsWriteSent = System.nanoTime();
                     internalWaitForWriteCompletions(I2cWaitControl.ATOMIC);
                     /*
                      * LynxI2cReadMultipleBytesCommand does not support a
@@ -74,8 +75,10 @@ public class LynxI2cDeviceSynchV1 extends LynxI2cDeviceSynch
                             : new LynxI2cReadMultipleBytesCommand(getModule(), bus, i2cAddr, creg);
                     readTx.send();
 
+                    // The read can't start on the bus before it's accepted, nor before the write is done
+                    long nsReadStart = Math.max(System.nanoTime(), nsWriteSent + nsWriteBusTime(1));
                     readTimeStampedPlaceholder.reset();
-                    return pollForReadResult(i2cAddr, ireg, creg);
+                    return pollForReadResult(i2cAddr, ireg, creg, nsReadStart + nsReadBusTime(creg));
                 }
             });
         } catch (InterruptedException|RobotCoreException|RuntimeException e) {
@@ -64,9 +64,10 @@ public class LynxI2cDeviceSynchV2 extends LynxI2cDeviceSynch
                 {
                     LynxCommand<?> tx = new LynxI2cWriteReadMultipleBytesCommand(getModule(), bus, i2cAddr, ireg, creg);
                     tx.send();
+                    long nsSent = System.nanoTime();    // the module only starts on the bus once it has accepted the command
 
                     readTimeStampedPlaceholder.reset();
-                    return pollForReadResult(i2cAddr, ireg, creg);
+                    return pollForReadResult(i2cAddr, ireg, creg, nsSent + nsWriteReadBusTime(creg));
                 }
             });
         } catch (InterruptedException|RobotCoreException|RuntimeException e) {
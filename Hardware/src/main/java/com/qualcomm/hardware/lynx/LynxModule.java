@@ -42,10 +42,13 @@ import com.qualcomm.hardware.lynx.commands.LynxDatagram;
 import com.qualcomm.hardware.lynx.commands.LynxInterface;
 import com.qualcomm.hardware.lynx.commands.LynxInterfaceCommand;
 import com.qualcomm.hardware.lynx.commands.LynxMessage;
+import com.qualcomm.hardware.lynx.commands.LynxMessageFactory;
 import com.qualcomm.hardware.lynx.commands.LynxRespondable;
 import com.qualcomm.hardware.lynx.commands.LynxResponse;
 import com.qualcomm.hardware.lynx.commands.core.LynxDekaInterfaceCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxFtdiResetControlCommand;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataCommand;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataResponse;
 import com.qualcomm.hardware.lynx.commands.core.LynxPhoneChargeControlCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxPhoneChargeQueryCommand;
 import com.qualcomm.hardware.lynx.commands.core.LynxPhoneChargeQueryResponse;
@@ -66,10 +69,13 @@ import com.qualcomm.hardware.lynx.commands.standard.LynxSetModuleLEDColorCommand
 import com.qualcomm.hardware.lynx.commands.standard.LynxSetModuleLEDPatternCommand;
 import com.qualcomm.hardware.lynx.commands.standard.LynxSetNewModuleAddressCommand;
 import com.qualcomm.hardware.lynx.commands.standard.LynxStandardCommand;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
 import com.qualcomm.robotcore.exception.RobotCoreException;
 import com.qualcomm.robotcore.hardware.Blinker;
 import com.qualcomm.robotcore.hardware.HardwareDevice;
 import com.qualcomm.robotcore.hardware.HardwareDeviceHealth;
+import com.qualcomm.robotcore.hardware.I2cReadWindowPrefetcher;
 import com.qualcomm.robotcore.hardware.VisuallyIdentifiableHardwareDevice;
 import com.qualcomm.robotcore.hardware.RobotConfigNameable;
 import com.qualcomm.robotcore.hardware.configuration.LynxConstants;
@@ -85,13 +91,16 @@ import org.firstinspires.ftc.robotcore.internal.network.WifiDirectInviteDialogMo
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 import org.firstinspires.ftc.robotcore.internal.system.Assert;
 import org.firstinspires.ftc.robotcore.internal.system.Misc;
+import org.firstinspires.ftc.robotcore.internal.system.StatisticsRegistry;
 import org.firstinspires.ftc.robotcore.internal.usb.LynxModuleSerialNumber;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -100,8 +109,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
@@ -116,7 +128,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @see LynxUsbDeviceImpl
  */
 @SuppressWarnings("WeakerAccess")
-public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIntf, RobotArmingStateNotifier, RobotArmingStateNotifier.Callback, Blinker, VisuallyIdentifiableHardwareDevice
+public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIntf, RobotArmingStateNotifier, RobotArmingStateNotifier.Callback, Blinker, VisuallyIdentifiableHardwareDevice, OpModeManagerNotifier.Notifications
     {
     //----------------------------------------------------------------------------------------------
     // Constants
@@ -134,14 +146,29 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
     // Command Meta State
     //----------------------------------------------------------------------------------------------
 
-    /** A {@link Class} for one of the Lynx messages together with a cached constructor thereto */
+    /** A {@link Class} for one of the Lynx messages together with a means of instantiating same:
+     * a non-reflective {@link LynxMessageFactory} if one is registered, else a cached constructor */
     protected static class MessageClassAndCtor
         {
         public Class<? extends LynxMessage>        clazz;
+        public LynxMessageFactory                  factory;
         public Constructor<? extends LynxMessage>  ctor;
 
+        public LynxMessage newInstance(LynxModule module) throws InstantiationException, IllegalAccessException, InvocationTargetException
+            {
+            return this.factory != null
+                    ? this.factory.newInstance(module)
+                    : this.ctor.newInstance(module);
+            }
+
         public void assignCtor() throws NoSuchMethodException
             {
+            this.factory = LynxMessageFactory.forClass(this.clazz);
+            if (this.factory != null)
+                {
+                this.ctor = null;
+                return;
+                }
             try {
                 this.ctor = this.clazz.getConstructor(LynxModule.class);
                 }
@@ -247,6 +274,7 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
      *  makes sure that once we issue a read, we can actually read that data before
      *  we get back in there and, say, issue a write on another bus. */
     protected final Object                                    i2cLock;
+    protected I2cReadWindowPrefetcher                         i2cPrefetcher;
 
     /** State for maintaining stack of blinker patterns */
     protected ArrayList<Step>                                 currentSteps;
@@ -254,12 +282,29 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
     protected boolean                                         isVisuallyIdentifying;
 
     protected ScheduledExecutorService                        executor;
+    protected ExecutorService                                 asyncCommandExecutor; // created on demand; see sendCommandAsync()
+    protected LynxPollingScheduler                            pollingScheduler;     // created on demand; see getPollingScheduler()
+
+    /** Round trip times of the messages we send, kept separately for each class of message */
+    protected final ConcurrentHashMap<Class<? extends LynxMessage>, LynxRoundTripEstimator> roundTripEstimators;
+    /** Latencies and counts of our command transactions; exported through the {@link StatisticsRegistry} */
+    protected final LynxTransactionStats                      transactionStats;
+    protected final org.firstinspires.ftc.robotcore.external.function.Supplier<Object> transactionStatsSource;
     protected Future<?>                                       pingFuture;
     protected Future<?>                                       attentionRequiredFuture;
     protected final Object                                    futureLock;
     protected boolean                                         ftdiResetWatchdogActive; // our actual current status
     protected boolean                                         ftdiResetWatchdogActiveWhenEngaged; // status when we were last engaged
 
+    /** State for bulk caching. See {@link BulkCachingMode} */
+    protected volatile BulkCachingMode                        bulkCachingMode;
+    protected BulkData                                        lastBulkData;
+    protected final Map<Class<? extends LynxCommand>,boolean[]> bulkCachingHistory; // command -> channels read from lastBulkData
+    protected final Object                                    bulkCachingLock;
+
+    /** State for write batching. See {@link #setWriteBatchingEnabled(boolean)} */
+    protected volatile boolean                                writeBatchingEnabled;
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -291,19 +336,37 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
         this.interfacesQueried  = new ConcurrentHashMap<String, LynxInterface>();
         this.unfinishedCommands = new ConcurrentHashMap<Integer, LynxRespondable>();
         this.i2cLock            = new Object();
+        this.i2cPrefetcher      = new I2cReadWindowPrefetcher(Misc.formatInvariant("mod#=%d", moduleAddress));
         this.currentSteps       = new ArrayList<Step>();
         this.previousSteps      = new ArrayDeque<ArrayList<Step>>();
         this.isVisuallyIdentifying = false;
         this.executor           = null;
+        this.asyncCommandExecutor = null;
+        this.pollingScheduler   = null;
+        this.roundTripEstimators = new ConcurrentHashMap<Class<? extends LynxMessage>, LynxRoundTripEstimator>();
+        this.transactionStats   = new LynxTransactionStats();
+        this.transactionStatsSource = new org.firstinspires.ftc.robotcore.external.function.Supplier<Object>()
+            {
+            @Override public Object get()
+                {
+                return transactionStats.getSummary();
+                }
+            };
         this.pingFuture         = null;
         this.attentionRequiredFuture = null;
         this.futureLock         = new Object();
         this.ftdiResetWatchdogActive = false;
         this.ftdiResetWatchdogActiveWhenEngaged = false;
+        this.bulkCachingMode    = BulkCachingMode.OFF;
+        this.lastBulkData       = null;
+        this.bulkCachingHistory = new HashMap<Class<? extends LynxCommand>, boolean[]>();
+        this.bulkCachingLock    = new Object();
+        this.writeBatchingEnabled = false;
 
         startExecutor();
 
         this.lynxUsbDevice.registerCallback(this, false);
+        StatisticsRegistry.getInstance().register(getTransactionStatsName(), transactionStatsSource);
         }
 
     @Override public String toString()
@@ -321,6 +384,10 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
             stopAttentionRequired();
             stopPingTimer(true);
             stopExecutor();
+            stopAsyncCommandExecutor();
+            stopPollingScheduler();
+            i2cPrefetcher.close();
+            StatisticsRegistry.getInstance().unregister(getTransactionStatsName(), transactionStatsSource);
             }
         }
 
@@ -328,6 +395,11 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
     // Accessors
     //----------------------------------------------------------------------------------------------
 
+    public LynxUsbDevice getLynxUsbDevice()
+        {
+        return this.lynxUsbDevice;
+        }
+
     public boolean isUserModule()
         {
         return this.isUserModule;
@@ -473,6 +545,7 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
             {
             controller.forgetLastKnown();
             }
+        clearBulkCache();
         }
 
     //----------------------------------------------------------------------------------------------
@@ -1253,6 +1326,82 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
             }
         }
 
+    protected ExecutorService getAsyncCommandExecutor()
+        {
+        synchronized (startStopLock)
+            {
+            if (!this.isOpen)
+                {
+                throw new RejectedExecutionException(Misc.formatForUser("%s is closed", this));
+                }
+            if (this.asyncCommandExecutor == null)
+                {
+                this.asyncCommandExecutor = ThreadPool.newCachedThreadPool("lynx async commands");
+                }
+            return this.asyncCommandExecutor;
+            }
+        }
+
+    /**
+     * Returns the scheduler with which periodic background reads of this module's sensors may
+     * be arranged. The latest results of those reads may then be retrieved from the returned
+     * snapshots at any time without waiting on the hardware. Polls are cancelled when the
+     * opmode stops.
+     *
+     * @see #pollBulkData(double)
+     */
+    public LynxPollingScheduler getPollingScheduler()
+        {
+        synchronized (startStopLock)
+            {
+            if (!this.isOpen)
+                {
+                throw new IllegalStateException(Misc.formatForUser("%s is closed", this));
+                }
+            if (this.pollingScheduler == null)
+                {
+                this.pollingScheduler = new LynxPollingScheduler(Misc.formatInvariant("mod#=%d", this.moduleAddress));
+                }
+            return this.pollingScheduler;
+            }
+        }
+
+    /**
+     * Returns the prefetcher which, when enabled, reads the read windows of the I2C devices
+     * on this module in the background, one lane per bus, so that their reads can usually be
+     * answered without waiting on the bus. It is disabled when the opmode stops.
+     * @see I2cReadWindowPrefetcher#setEnabled(boolean)
+     */
+    public I2cReadWindowPrefetcher getI2cPrefetcher()
+        {
+        return this.i2cPrefetcher;
+        }
+
+    protected void stopPollingScheduler()
+        {
+        if (this.pollingScheduler != null)
+            {
+            this.pollingScheduler.shutdown();
+            this.pollingScheduler = null;
+            }
+        }
+
+    protected void stopAsyncCommandExecutor()
+        {
+        if (this.asyncCommandExecutor != null)
+            {
+            this.asyncCommandExecutor.shutdownNow();
+            try {
+                ThreadPool.awaitTermination(asyncCommandExecutor, 2, TimeUnit.SECONDS, "lynx async commands");
+                }
+            catch (InterruptedException e)
+                {
+                Thread.currentThread().interrupt();
+                }
+            this.asyncCommandExecutor = null;
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // Misc other commands
     //----------------------------------------------------------------------------------------------
@@ -1278,6 +1427,227 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
         return response.isChargeEnabled();
         }
 
+    //----------------------------------------------------------------------------------------------
+    // Bulk caching
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * {@link BulkCachingMode} controls whether the encoder, velocity, motor status, digital input
+     * and analog input getters of the controllers on this module issue their own individual
+     * commands, or are instead answered from a snapshot taken with a single
+     * {@link LynxGetBulkInputDataCommand}.
+     */
+    public enum BulkCachingMode
+        {
+        /** Every read issues its own command to the module. This is the default. */
+        OFF,
+        /** Reads are answered from the cache, which is only refreshed when empty; the user
+         * must call {@link #clearBulkCache()}, typically at the top of each loop, to get fresh data. */
+        MANUAL,
+        /** Reads are answered from the cache, which is automatically refreshed whenever a
+         * value already answered from the current snapshot is asked for a second time. */
+        AUTO
+        }
+
+    /**
+     * {@link BulkData} is an immutable snapshot of the bulk input data of a module.
+     */
+    public static class BulkData
+        {
+        private final LynxGetBulkInputDataResponse response;
+        private final long nanoTime;
+        private final boolean isFake;
+
+        protected BulkData(LynxGetBulkInputDataResponse response, long nanoTime, boolean isFake)
+            {
+            this.response = response;
+            this.nanoTime = nanoTime;
+            this.isFake   = isFake;
+            }
+
+        /** Returns the {@link System#nanoTime()} at which this data was received */
+        public long getNanoTime()                               { return nanoTime; }
+        /** Returns true if this data is a placeholder, as the module could not be read */
+        public boolean isFake()                                 { return isFake; }
+
+        public boolean getDigitalChannelState(int digitalInputZ){ return response.getDigitalInput(digitalInputZ); }
+        public int getMotorCurrentPosition(int motorZ)          { return response.getEncoder(motorZ); }
+        /** in encoder counts per second */
+        public int getMotorVelocity(int motorZ)                 { return response.getVelocity(motorZ); }
+        public boolean isMotorBusy(int motorZ)                  { return !response.isAtTarget(motorZ); }
+        public boolean isMotorOverCurrent(int motorZ)           { return response.isOverCurrent(motorZ); }
+        /** in mV */
+        public int getAnalogInputVoltage(int inputZ)            { return response.getAnalogInput(inputZ); }
+        }
+
+    public BulkCachingMode getBulkCachingMode()
+        {
+        return this.bulkCachingMode;
+        }
+
+    /**
+     * Sets the bulk caching mode of this module. Changing the mode always clears the cache.
+     * @see BulkCachingMode
+     */
+    public void setBulkCachingMode(BulkCachingMode mode)
+        {
+        synchronized (this.bulkCachingLock)
+            {
+            RobotLog.vv(TAG, "mod#=%d setBulkCachingMode(%s)", getModuleAddress(), mode);
+            this.bulkCachingMode = mode;
+            clearBulkCache();
+            }
+        }
+
+    /** Discards any cached bulk data, so that the next cached read will refresh it. */
+    public void clearBulkCache()
+        {
+        synchronized (this.bulkCachingLock)
+            {
+            this.lastBulkData = null;
+            for (boolean[] channels : this.bulkCachingHistory.values())
+                {
+                Arrays.fill(channels, false);
+                }
+            }
+        }
+
+    /**
+     * Reads a fresh snapshot of the bulk input data of this module, and, if caching is enabled,
+     * makes it the current contents of the cache.
+     */
+    public BulkData getBulkData()
+        {
+        synchronized (this.bulkCachingLock)
+            {
+            clearBulkCache();
+            LynxGetBulkInputDataCommand command = new LynxGetBulkInputDataCommand(this);
+            try {
+                LynxGetBulkInputDataResponse response = command.sendReceive();
+                this.lastBulkData = new BulkData(response, System.nanoTime(), false);
+                }
+            catch (InterruptedException|RuntimeException|LynxNackException e)
+                {
+                handleException(e);
+                this.lastBulkData = new BulkData(new LynxGetBulkInputDataResponse(this), System.nanoTime(), true);
+                }
+            return this.lastBulkData;
+            }
+        }
+
+    /**
+     * Starts reading the bulk input data of this module in the background at the indicated rate.
+     * Unlike {@link #getBulkData()}, the reads don't interact with the bulk cache.
+     */
+    public LynxPollingScheduler.Snapshot<BulkData> pollBulkData(double hz)
+        {
+        return getPollingScheduler().schedule("bulkData", hz, new Supplier<BulkData>()
+            {
+            @Override public BulkData get() throws InterruptedException, LynxNackException
+                {
+                LynxGetBulkInputDataResponse response = new LynxGetBulkInputDataCommand(LynxModule.this).sendReceive();
+                return new BulkData(response, System.nanoTime(), false);
+                }
+            });
+        }
+
+    /**
+     * Called by our controllers when a read that can be answered from bulk data is about
+     * to be carried out. Returns the data with which to answer it, refreshing the cache
+     * first if that is necessary under the current {@link BulkCachingMode}.
+     *
+     * @param commandClass  the command that would otherwise have been issued for the read
+     * @param channel       the zero-based channel being read
+     */
+    BulkData recordBulkCachingCommandIntent(Class<? extends LynxCommand> commandClass, int channel)
+        {
+        synchronized (this.bulkCachingLock)
+            {
+            boolean[] channels = this.bulkCachingHistory.get(commandClass);
+            if (channels == null)
+                {
+                channels = new boolean[LynxConstants.NUMBER_OF_DIGITAL_IOS];
+                this.bulkCachingHistory.put(commandClass, channels);
+                }
+
+            if (this.lastBulkData == null || (this.bulkCachingMode == BulkCachingMode.AUTO && channels[channel]))
+                {
+                getBulkData();
+                }
+
+            channels[channel] = true;
+            return this.lastBulkData;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Write batching
+    //----------------------------------------------------------------------------------------------
+
+    public boolean isWriteBatchingEnabled()
+        {
+        return this.writeBatchingEnabled;
+        }
+
+    /**
+     * When write batching is enabled, motor power, velocity, and target position writes made
+     * to the controllers on this module are not transmitted immediately. Rather, only the last
+     * value written to each motor is remembered, and is transmitted (if it differs from what
+     * was last sent) when {@link #flushPendingWrites()} is called, typically at the bottom of
+     * each loop. Disabling write batching flushes any writes still pending. Write batching is
+     * automatically disabled when an opmode stops.
+     */
+    public void setWriteBatchingEnabled(boolean enabled)
+        {
+        RobotLog.vv(TAG, "mod#=%d setWriteBatchingEnabled(%s)", getModuleAddress(), enabled);
+        this.writeBatchingEnabled = enabled;
+        if (!enabled)
+            {
+            flushPendingWrites();
+            }
+        }
+
+    /** Transmits any writes that were deferred by write batching. */
+    public void flushPendingWrites()
+        {
+        for (LynxController controller : this.controllers)
+            {
+            controller.flushPendingWrites();
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // OpModeManagerNotifier.Notifications
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void onOpModePreInit(OpMode opMode)
+        {
+        }
+
+    @Override public void onOpModePreStart(OpMode opMode)
+        {
+        }
+
+    @Override public void onOpModePostStop(OpMode opMode)
+        {
+        // Polls and prefetching are set up by opmodes, and so shouldn't outlive them
+        synchronized (startStopLock)
+            {
+            if (this.pollingScheduler != null)
+                {
+                this.pollingScheduler.cancelAll();
+                }
+            }
+        this.i2cPrefetcher.setEnabled(false);
+
+        // Make sure that the writes the opmode made on its way out, and those the system
+        // makes to stop the robot, actually reach the hardware
+        if (isWriteBatchingEnabled())
+            {
+            setWriteBatchingEnabled(false);
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // Debug control
     //----------------------------------------------------------------------------------------------
@@ -1352,7 +1722,9 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
 
     public void acquireNetworkTransmissionLock(@NonNull LynxMessage message) throws InterruptedException
         {
+        long nsStart = System.nanoTime();
         this.lynxUsbDevice.acquireNetworkTransmissionLock(message);
+        this.transactionStats.noteLockWait(message, System.nanoTime() - nsStart);
         }
 
     public void releaseNetworkTransmissionLock(@NonNull LynxMessage message) throws InterruptedException
@@ -1360,6 +1732,26 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
         this.lynxUsbDevice.releaseNetworkTransmissionLock(message);
         }
 
+    /**
+     * Sends a command to the module without waiting for it to complete. The command is sent,
+     * retransmitted, and awaited exactly as {@link LynxRespondable#sendReceive()} would do, but
+     * on a worker thread, so that the caller may issue several commands (say, at the top of a
+     * loop) and collect their responses later, doing other work in the meantime. The result of
+     * the returned future is the response to the command (null for commands which are merely
+     * acknowledged); {@link Future#get()} wraps any {@link LynxNackException} in an
+     * {@link ExecutionException}. Cancelling the future abandons the command.
+     */
+    public <RESPONSE extends LynxMessage> Future<RESPONSE> sendCommandAsync(final LynxCommand<RESPONSE> command)
+        {
+        return getAsyncCommandExecutor().submit(new Callable<RESPONSE>()
+            {
+            @Override public RESPONSE call() throws InterruptedException, LynxNackException
+                {
+                return command.sendReceive();
+                }
+            });
+        }
+
     /**
      * Sends a command to the module, scheduling retransmissions as necessary.
      */
@@ -1377,7 +1769,10 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
         this.unfinishedCommands.put(msgnumCur, (LynxRespondable)command);
 
         // Send it on out!
+        this.transactionStats.noteCommand(command);
+        long nsStart = System.nanoTime();
         this.lynxUsbDevice.transmit(command);
+        this.transactionStats.noteTransmit(command, System.nanoTime() - nsStart);
 
         // If the module isn't going to send something back to us in response, then it's finished
         if (!moduleWillReply)
@@ -1386,6 +1781,46 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
             }
          }
 
+    /**
+     * Returns the round trip statistics of this module for the indicated class of message. These
+     * also govern how quickly unanswered messages of that class are retransmitted. Each class
+     * has its own, so that quickly answered commands don't hasten the retransmission of slower ones.
+     */
+    @Override public LynxRoundTripEstimator getRoundTripEstimator(Class<? extends LynxMessage> messageClass)
+        {
+        LynxRoundTripEstimator result = roundTripEstimators.get(messageClass);
+        if (result == null)
+            {
+            LynxRoundTripEstimator estimator = new LynxRoundTripEstimator(messageClass.getSimpleName());
+            result = roundTripEstimators.putIfAbsent(messageClass, estimator);
+            if (result == null)
+                {
+                result = estimator;
+                }
+            }
+        return result;
+        }
+
+    /** Returns the round trip statistics of all the classes of message that have been sent to this module */
+    public Collection<LynxRoundTripEstimator> getRoundTripEstimators()
+        {
+        return Collections.unmodifiableCollection(roundTripEstimators.values());
+        }
+
+    /**
+     * Returns the latency histograms and counters of the command transactions with this module.
+     * These are also available as JSON from the robot controller web server.
+     */
+    @Override public LynxTransactionStats getTransactionStats()
+        {
+        return transactionStats;
+        }
+
+    protected String getTransactionStatsName()
+        {
+        return Misc.formatInvariant("lynx(%s)", this.moduleSerialNumber);
+        }
+
     @Override public void retransmit(LynxMessage message) throws InterruptedException
         {
         RobotLog.vv(TAG, "retransmitting: mod=%d cmd=0x%02x msg#=%d ref#=%d ", this.getModuleAddress(), message.getCommandNumber(), message.getMessageNumber(), message.getReferenceNumber());
@@ -1427,11 +1862,12 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
                 if (pair != null)
                     {
                     // Instantiate the command or response so we can deserialize
-                    LynxMessage incomingMessage = pair.ctor.newInstance(this);
+                    LynxMessage incomingMessage = pair.newInstance(this);
 
-                    // Deserialize
+                    // Deserialize. The datagram is reused by our caller, so don't hang on to it
                     incomingMessage.setSerialization(datagram);
                     incomingMessage.loadFromSerialization();
+                    incomingMessage.forgetSerialization();
 
                     if (LynxUsbDeviceImpl.DEBUG_LOG_MESSAGES) RobotLog.vv(TAG, "rec'd: mod=%d cmd=0x%02x(%s) msg#=%d ref#=%d", datagram.getSourceModuleAddress(), datagram.getPacketId(), incomingMessage.getClass().getSimpleName(), incomingMessage.getMessageNumber(), incomingMessage.getReferenceNumber());
 
@@ -1444,6 +1880,7 @@ public class LynxModule extends LynxCommExceptionHandler implements LynxModuleIn
                             // Process the ack or the nack
                             if (incomingMessage.isNack())
                                 {
+                                this.transactionStats.noteNack(ackdCommand);
                                 ackdCommand.onNackReceived((LynxNack)incomingMessage);
                                 }
                             else
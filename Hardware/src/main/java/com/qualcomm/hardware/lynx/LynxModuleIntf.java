@@ -60,4 +60,6 @@ public interface LynxModuleIntf extends RobotCoreLynxModule, HardwareDevice, Eng
     void finishedWithMessage(LynxMessage message)               throws InterruptedException;
     void noteAttentionRequired();
     int getInterfaceBaseCommandNumber(String interfaceName);
+    LynxRoundTripEstimator getRoundTripEstimator(Class<? extends LynxMessage> messageClass);
+    LynxTransactionStats getTransactionStats();
     }
@@ -0,0 +1,342 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
+import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.robotcore.internal.opmode.OpModeManagerImpl;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link LynxMultiModuleReader} reads the bulk input data of several modules, and any other
+ * reads registered with it, concurrently rather than one after another. There's one worker per
+ * {@link LynxUsbDevice}: modules that share a USB device (eg: an Expansion Hub connected over
+ * RS485 to a Control Hub) share a link, so gain nothing by being read in parallel, but modules
+ * on different USB devices are read simultaneously. The overall read latency is thus that of
+ * the slowest USB device, rather than the sum of them all.
+ *
+ * Each call to {@link #read(long)} returns a {@link Snapshot} of everything that was read.
+ * A USB device whose reads missed a deadline and are still running is reported as timed out
+ * until they finish, rather than being read again behind them.
+ * The worker threads are shut down by {@link #close()}, or automatically when the opmode stops.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxMultiModuleReader
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** The results of one {@link #read(long)} */
+    public static class Snapshot
+        {
+        public final long nanoTimeStart;
+        public final long nanoTimeEnd;
+        protected final Map<LynxModule, LynxModule.BulkData> bulkData = new ConcurrentHashMap<LynxModule, LynxModule.BulkData>();
+        protected final Map<String, Object> values = new ConcurrentHashMap<String, Object>();
+        protected final Set<LynxModule> timedOut;
+
+        protected Snapshot(long nanoTimeStart, long nanoTimeEnd, Set<LynxModule> timedOut)
+            {
+            this.nanoTimeStart = nanoTimeStart;
+            this.nanoTimeEnd = nanoTimeEnd;
+            this.timedOut = timedOut;
+            }
+
+        /** Returns the bulk data read from the indicated module, or null if its reads didn't all complete in time */
+        public LynxModule.BulkData getBulkData(LynxModule module)
+            {
+            return bulkData.get(module);
+            }
+
+        /** Returns the result of the indicated registered read, or null if its module's reads didn't all complete in time */
+        @SuppressWarnings("unchecked")
+        public <T> T get(String name)
+            {
+            return (T)values.get(name);
+            }
+
+        /** Returns the modules whose reads didn't all complete before the deadline */
+        public Set<LynxModule> getTimedOutModules()
+            {
+            return Collections.unmodifiableSet(timedOut);
+            }
+
+        public boolean isComplete()
+            {
+            return timedOut.isEmpty();
+            }
+        }
+
+    protected class OpModeNotifications implements OpModeManagerNotifier.Notifications
+        {
+        @Override public void onOpModePreInit(OpMode opMode)
+            {
+            }
+
+        @Override public void onOpModePreStart(OpMode opMode)
+            {
+            }
+
+        @Override public void onOpModePostStop(OpMode opMode)
+            {
+            // Our workers are created for the opmode, and so shouldn't outlive it
+            close();
+            }
+        }
+
+    protected static class Read
+        {
+        final String      name;
+        final Supplier<?> supplier;
+
+        Read(String name, Supplier<?> supplier)
+            {
+            this.name = name;
+            this.supplier = supplier;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "LynxMultiModuleReader";
+
+    protected final Map<LynxUsbDevice, List<LynxModule>> modulesByUsbDevice = new LinkedHashMap<LynxUsbDevice, List<LynxModule>>();
+    protected final Map<LynxModule, List<Read>>          reads = new LinkedHashMap<LynxModule, List<Read>>();
+    protected final Map<LynxUsbDevice, AtomicBoolean>    running = new LinkedHashMap<LynxUsbDevice, AtomicBoolean>();
+    protected ExecutorService                            executor = null;
+    protected OpModeManagerImpl                          opModeManager = null;
+    protected final OpModeNotifications                  opModeNotifications = new OpModeNotifications();
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public LynxMultiModuleReader(HardwareMap hardwareMap)
+        {
+        this(hardwareMap.getAll(LynxModule.class));
+        }
+
+    public LynxMultiModuleReader(Collection<LynxModule> modules)
+        {
+        for (LynxModule module : modules)
+            {
+            List<LynxModule> group = modulesByUsbDevice.get(module.getLynxUsbDevice());
+            if (group == null)
+                {
+                group = new ArrayList<LynxModule>();
+                modulesByUsbDevice.put(module.getLynxUsbDevice(), group);
+                running.put(module.getLynxUsbDevice(), new AtomicBoolean(false));
+                }
+            group.add(module);
+            reads.put(module, new ArrayList<Read>());
+            }
+        }
+
+    public synchronized void close()
+        {
+        if (executor != null)
+            {
+            executor.shutdownNow();
+            try {
+                ThreadPool.awaitTermination(executor, 2, TimeUnit.SECONDS, "lynx fan-out");
+                }
+            catch (InterruptedException e)
+                {
+                Thread.currentThread().interrupt();
+                }
+            executor = null;
+            }
+        if (opModeManager != null)
+            {
+            opModeManager.unregisterListener(opModeNotifications);
+            opModeManager = null;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Registers an additional read (eg: of an I2C sensor) to be done along with the bulk data of
+     * the indicated module, which must be the module the sensor is attached to. The result is
+     * retrieved from the snapshot using the indicated name.
+     */
+    public synchronized void addRead(LynxModule module, String name, Supplier<?> read)
+        {
+        List<Read> moduleReads = reads.get(module);
+        if (moduleReads == null) throw new IllegalArgumentException(String.format("%s isn't one of our modules", module));
+        moduleReads.add(new Read(name, read));
+        }
+
+    /**
+     * Reads the bulk data of each module, and each registered read, waiting at most msDeadline
+     * milliseconds for them all. Reads that miss the deadline are abandoned, and their modules
+     * reported as timed out in the returned snapshot.
+     */
+    public synchronized Snapshot read(long msDeadline)
+        {
+        final long nanoTimeStart = System.nanoTime();
+        final long nanoTimeDeadline = nanoTimeStart + msDeadline * ElapsedTime.MILLIS_IN_NANO;
+        if (executor == null)
+            {
+            // We never have more than one task per USB device in flight (see below), so one thread each suffices
+            executor = ThreadPool.newFixedThreadPool(Math.max(1, modulesByUsbDevice.size()), "lynx fan-out");
+            opModeManager = OpModeManagerImpl.getOpModeManagerOfActivity(AppUtil.getInstance().getActivity());
+            if (opModeManager != null)
+                {
+                opModeManager.registerListener(opModeNotifications);
+                }
+            }
+
+        final Snapshot partial = new Snapshot(nanoTimeStart, 0, Collections.<LynxModule>emptySet());
+        Map<Future<?>, List<LynxModule>> futures = new LinkedHashMap<Future<?>, List<LynxModule>>();
+        Set<LynxModule> timedOut = new HashSet<LynxModule>();
+        for (Map.Entry<LynxUsbDevice, List<LynxModule>> pair : modulesByUsbDevice.entrySet())
+            {
+            final List<LynxModule> group = pair.getValue();
+            final AtomicBoolean groupRunning = running.get(pair.getKey());
+            if (groupRunning.get())
+                {
+                // A read abandoned at an earlier deadline hasn't yet given up its thread. Don't
+                // queue behind it: another read on the same link would be no quicker.
+                timedOut.addAll(group);
+                continue;
+                }
+            futures.put(executor.submit(new Callable<Void>()
+                {
+                @Override public Void call() throws InterruptedException, RobotCoreException, LynxNackException
+                    {
+                    groupRunning.set(true);
+                    try {
+                        for (LynxModule module : group)
+                            {
+                            readModule(module, partial);
+                            }
+                        return null;
+                        }
+                    finally
+                        {
+                        groupRunning.set(false);
+                        }
+                    }
+                }), group);
+            }
+
+        for (Map.Entry<Future<?>, List<LynxModule>> pair : futures.entrySet())
+            {
+            try {
+                long nsRemaining = Math.max(0, nanoTimeDeadline - System.nanoTime());
+                pair.getKey().get(nsRemaining, TimeUnit.NANOSECONDS);
+                }
+            catch (TimeoutException e)
+                {
+                pair.getKey().cancel(true);
+                timedOut.addAll(pair.getValue());
+                }
+            catch (ExecutionException e)
+                {
+                RobotLog.ee(TAG, e.getCause(), "exception reading modules");
+                timedOut.addAll(pair.getValue());
+                }
+            catch (InterruptedException e)
+                {
+                Thread.currentThread().interrupt();
+                pair.getKey().cancel(true);
+                timedOut.addAll(pair.getValue());
+                }
+            }
+
+        // Abandoned reads may still be running, and may have left partial results: take only
+        // those of the modules that completed
+        Snapshot result = new Snapshot(nanoTimeStart, System.nanoTime(), timedOut);
+        for (LynxModule module : reads.keySet())
+            {
+            if (timedOut.contains(module)) continue;
+            LynxModule.BulkData bulkData = partial.bulkData.get(module);
+            if (bulkData != null)
+                {
+                result.bulkData.put(module, bulkData);
+                }
+            for (Read read : reads.get(module))
+                {
+                Object value = partial.values.get(read.name);
+                if (value != null)
+                    {
+                    result.values.put(read.name, value);
+                    }
+                }
+            }
+        return result;
+        }
+
+    protected void readModule(LynxModule module, Snapshot snapshot) throws InterruptedException, RobotCoreException, LynxNackException
+        {
+        snapshot.bulkData.put(module, module.getBulkData());
+        for (Read read : reads.get(module))
+            {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+            Object value = read.supplier.get();
+            if (value != null)
+                {
+                snapshot.values.put(read.name, value);
+                }
+            }
+        }
+    }
@@ -0,0 +1,280 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.firstinspires.ftc.robotcore.internal.system.Misc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LynxPollingScheduler} runs registered reads periodically on a dedicated thread and
+ * publishes their results into {@link Snapshot}s, which may be read from any thread without
+ * blocking. An opmode can thus, say, poll bulk input data at 200Hz, an IMU at 100Hz, and the
+ * battery voltage at 2Hz, and its loop() need never wait on the hardware for any of them.
+ *
+ * All reads share the one polling thread, so they are naturally serialized; a read that is
+ * slow to complete delays (but does not cancel) the others.
+ *
+ * @see LynxModule#getPollingScheduler()
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxPollingScheduler
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** An immutable, timestamped result of one read */
+    public static class Sample<T>
+        {
+        public final T    value;
+        public final long nanoTime;     // when the read completed
+        public final long sequence;     // increases by one with each successful read
+
+        public Sample(T value, long nanoTime, long sequence)
+            {
+            this.value = value;
+            this.nanoTime = nanoTime;
+            this.sequence = sequence;
+            }
+        }
+
+    /**
+     * The most recent result of a periodic read. The polling thread replaces the whole
+     * {@link Sample} with a single volatile write, so readers always see a consistent
+     * value and timestamp.
+     */
+    public static class Snapshot<T>
+        {
+        protected final String      name;
+        protected volatile Sample<T> sample = null;
+        protected final AtomicLong  errorCount = new AtomicLong(0);
+
+        public Snapshot(String name)
+            {
+            this.name = name;
+            }
+
+        public String getName()
+            {
+            return name;
+            }
+
+        /** Returns the latest sample, or null if no read has yet succeeded */
+        public Sample<T> getSample()
+            {
+            return sample;
+            }
+
+        /** Returns the latest value read, or null if no read has yet succeeded */
+        public T getValue()
+            {
+            Sample<T> sample = this.sample;
+            return sample == null ? null : sample.value;
+            }
+
+        /** Returns the age of the latest value in milliseconds, or infinity if there is none */
+        public double getMsAge()
+            {
+            Sample<T> sample = this.sample;
+            return sample == null ? Double.POSITIVE_INFINITY : (System.nanoTime() - sample.nanoTime) * 1e-6;
+            }
+
+        public boolean isFresh(double msFreshness)
+            {
+            return getMsAge() <= msFreshness;
+            }
+
+        /** Returns the number of reads that have failed by throwing */
+        public long getErrorCount()
+            {
+            return errorCount.get();
+            }
+
+        protected void publish(T value)
+            {
+            Sample<T> prev = this.sample;
+            this.sample = new Sample<T>(value, System.nanoTime(), prev == null ? 0 : prev.sequence + 1);
+            }
+        }
+
+    protected static class Poll
+        {
+        final Snapshot<?>        snapshot;
+        final ScheduledFuture<?> future;
+
+        Poll(Snapshot<?> snapshot, ScheduledFuture<?> future)
+            {
+            this.snapshot = snapshot;
+            this.future = future;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "LynxPollingScheduler";
+
+    protected final String                    name;
+    protected final Object                    lock = new Object();
+    protected final Map<String, Poll>         polls = new ConcurrentHashMap<String, Poll>();
+    protected ScheduledExecutorService        executor = null;  // created on demand
+    protected boolean                         isShutdown = false;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public LynxPollingScheduler(String name)
+        {
+        this.name = name;
+        }
+
+    @Override public String toString()
+        {
+        return Misc.formatForUser("%s(%s)", getClass().getSimpleName(), name);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Starts reading from the indicated supplier at the indicated rate, replacing any poll
+     * previously registered under the same name. Returns the snapshot into which results
+     * are published.
+     */
+    public <T> Snapshot<T> schedule(String name, double hz, final Supplier<T> read)
+        {
+        if (!(hz > 0)) throw new IllegalArgumentException(Misc.formatForUser("invalid polling rate: %f", hz));
+        final Snapshot<T> snapshot = new Snapshot<T>(name);
+        long nsPeriod = Math.max(1, (long)(1e9 / hz));
+        synchronized (lock)
+            {
+            if (isShutdown) throw new IllegalStateException(Misc.formatForUser("%s is shut down", this));
+            if (executor == null)
+                {
+                executor = ThreadPool.newScheduledExecutor(1, "lynx polling");
+                }
+            cancel(name);
+            ScheduledFuture<?> future = executor.scheduleAtFixedRate(new Runnable()
+                {
+                @Override public void run()
+                    {
+                    poll(snapshot, read);
+                    }
+                }, 0, nsPeriod, TimeUnit.NANOSECONDS);
+            polls.put(name, new Poll(snapshot, future));
+            }
+        return snapshot;
+        }
+
+    /** Stops the poll registered under the indicated name, if any. Its snapshot retains its last value. */
+    public void cancel(String name)
+        {
+        Poll poll = polls.remove(name);
+        if (poll != null)
+            {
+            poll.future.cancel(false);
+            }
+        }
+
+    public void cancelAll()
+        {
+        for (String name : polls.keySet())
+            {
+            cancel(name);
+            }
+        }
+
+    /** Returns the snapshot of the poll registered under the indicated name, or null */
+    public Snapshot<?> getSnapshot(String name)
+        {
+        Poll poll = polls.get(name);
+        return poll == null ? null : poll.snapshot;
+        }
+
+    public void shutdown()
+        {
+        synchronized (lock)
+            {
+            isShutdown = true;
+            cancelAll();
+            if (executor != null)
+                {
+                executor.shutdownNow();
+                try {
+                    ThreadPool.awaitTermination(executor, 2, TimeUnit.SECONDS, "lynx polling");
+                    }
+                catch (InterruptedException e)
+                    {
+                    Thread.currentThread().interrupt();
+                    }
+                executor = null;
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Polling
+    //----------------------------------------------------------------------------------------------
+
+    protected <T> void poll(Snapshot<T> snapshot, Supplier<T> read)
+        {
+        try {
+            snapshot.publish(read.get());
+            }
+        catch (InterruptedException e)
+            {
+            Thread.currentThread().interrupt();
+            }
+        catch (RobotCoreException|LynxNackException|RuntimeException e)
+            {
+            // A periodic task that throws is never run again, so we must swallow
+            if (snapshot.errorCount.getAndIncrement() == 0)
+                {
+                RobotLog.ee(TAG, e, "exception polling %s; further errors will only be counted", snapshot.getName());
+                }
+            }
+        }
+    }
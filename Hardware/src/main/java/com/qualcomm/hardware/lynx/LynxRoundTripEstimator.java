@@ -0,0 +1,182 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.robotcore.util.Range;
+
+/**
+ * {@link LynxRoundTripEstimator} keeps a running estimate of the round trip time of the
+ * messages sent to a module, in the manner of TCP (RFC 6298), and from that derives how long
+ * to wait before retransmitting. A healthy link thus recovers from a lost packet in a few
+ * round trips rather than after a fixed, worst-case, interval.
+ *
+ * Only messages that were answered without being retransmitted are sampled, as it's
+ * ambiguous to which transmission the answer to a retransmitted message corresponds.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxRoundTripEstimator
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** Smoothing gains for the round trip time and its variation, as in RFC 6298 */
+    public static final double alpha = 1.0 / 8;
+    public static final double beta  = 1.0 / 4;
+    /** How many variations beyond the smoothed round trip time we wait before retransmitting */
+    public static final double K     = 4;
+    /** We never retransmit more quickly than this; it leaves room for the occasional slow answer from the module */
+    public static final int    msRetransmissionTimeoutMin = 25;
+
+    protected final String  name;
+    protected final Object  lock = new Object();
+    protected boolean       hasSample;
+    protected double        msSmoothed;
+    protected double        msVariation;
+    protected double        msMin;
+    protected double        msMax;
+    protected long          sampleCount;
+    protected long          retransmissionCount;
+    protected long          timeoutCount;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public LynxRoundTripEstimator(String name)
+        {
+        this.name = name;
+        reset();
+        }
+
+    public void reset()
+        {
+        synchronized (lock)
+            {
+            this.hasSample           = false;
+            this.msSmoothed          = 0;
+            this.msVariation         = 0;
+            this.msMin               = Double.MAX_VALUE;
+            this.msMax               = 0;
+            this.sampleCount         = 0;
+            this.retransmissionCount = 0;
+            this.timeoutCount        = 0;
+            }
+        }
+
+    @Override public String toString()
+        {
+        synchronized (lock)
+            {
+            return String.format("%s: rtt=%.1fms var=%.1fms rto=%dms min=%.1fms max=%.1fms n=%d retrans=%d timeouts=%d",
+                    name, msSmoothed, msVariation, getMsRetransmissionTimeout(Integer.MAX_VALUE),
+                    hasSample ? msMin : 0, msMax, sampleCount, retransmissionCount, timeoutCount);
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    public void noteRoundTrip(long nsRoundTrip)
+        {
+        double ms = nsRoundTrip * 1e-6;
+        synchronized (lock)
+            {
+            if (hasSample)
+                {
+                msVariation = (1 - beta) * msVariation + beta * Math.abs(msSmoothed - ms);
+                msSmoothed  = (1 - alpha) * msSmoothed + alpha * ms;
+                }
+            else
+                {
+                msSmoothed  = ms;
+                msVariation = ms / 2;
+                hasSample   = true;
+                }
+            msMin = Math.min(msMin, ms);
+            msMax = Math.max(msMax, ms);
+            sampleCount++;
+            }
+        }
+
+    public void noteRetransmission()
+        {
+        synchronized (lock)
+            {
+            retransmissionCount++;
+            }
+        }
+
+    public void noteTimeout()
+        {
+        synchronized (lock)
+            {
+            timeoutCount++;
+            }
+        }
+
+    /**
+     * Returns how long to wait for an answer before retransmitting. msMax is the fixed interval
+     * that would otherwise be used; it caps the result, and is used as is until we have a sample.
+     */
+    public int getMsRetransmissionTimeout(int msMax)
+        {
+        synchronized (lock)
+            {
+            if (!hasSample)
+                {
+                return msMax;
+                }
+            double ms = msSmoothed + K * msVariation;
+            return (int)Math.ceil(Range.clip(ms, Math.min(msRetransmissionTimeoutMin, msMax), msMax));
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Statistics
+    //----------------------------------------------------------------------------------------------
+
+    public String getName()                         { return name; }
+    public boolean hasSample()                      { synchronized (lock) { return hasSample; } }
+    /** The smoothed round trip time, in milliseconds */
+    public double getMsSmoothedRoundTrip()          { synchronized (lock) { return msSmoothed; } }
+    /** The smoothed variation in round trip time, in milliseconds */
+    public double getMsRoundTripVariation()         { synchronized (lock) { return msVariation; } }
+    public double getMsMinRoundTrip()               { synchronized (lock) { return hasSample ? msMin : 0; } }
+    public double getMsMaxRoundTrip()               { synchronized (lock) { return msMax; } }
+    public long getSampleCount()                    { synchronized (lock) { return sampleCount; } }
+    public long getRetransmissionCount()            { synchronized (lock) { return retransmissionCount; } }
+    /** The number of messages abandoned for want of an answer */
+    public long getTimeoutCount()                   { synchronized (lock) { return timeoutCount; } }
+    }
@@ -0,0 +1,233 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx;
+
+import com.qualcomm.hardware.lynx.commands.LynxMessage;
+
+import org.firstinspires.ftc.robotcore.internal.system.LatencyHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LynxTransactionStats} records, for one module, how long the various phases of each
+ * command transaction take: waiting for the network transmission lock, writing to USB, and
+ * awaiting the acknowledgement or response. Latencies are kept both per command class and
+ * in aggregate, along with counts of commands, retransmissions, nacks, and timeouts. All
+ * recording is lock-free, so may be done on the transmitting and receiving threads as is.
+ *
+ * @see LynxModule#getTransactionStats()
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxTransactionStats
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    public static class CommandStats
+        {
+        public final LatencyHistogram lockWait = new LatencyHistogram();
+        public final LatencyHistogram transmit = new LatencyHistogram();
+        public final LatencyHistogram ack      = new LatencyHistogram();
+        public final LatencyHistogram response = new LatencyHistogram();
+        public final AtomicLong commands        = new AtomicLong(0);
+        public final AtomicLong retransmissions = new AtomicLong(0);
+        public final AtomicLong nacks           = new AtomicLong(0);
+        public final AtomicLong timeouts        = new AtomicLong(0);
+
+        public void reset()
+            {
+            lockWait.reset();
+            transmit.reset();
+            ack.reset();
+            response.reset();
+            commands.set(0);
+            retransmissions.set(0);
+            nacks.set(0);
+            timeouts.set(0);
+            }
+
+        public Summary getSummary()
+            {
+            return new Summary(this);
+            }
+        }
+
+    /** Plain-data snapshot of a {@link CommandStats}, suitable for (eg) serializing to JSON */
+    public static class Summary
+        {
+        public final long commands;
+        public final long retransmissions;
+        public final long nacks;
+        public final long timeouts;
+        public final LatencyHistogram.Summary lockWait;
+        public final LatencyHistogram.Summary transmit;
+        public final LatencyHistogram.Summary ack;
+        public final LatencyHistogram.Summary response;
+
+        protected Summary(CommandStats stats)
+            {
+            this.commands        = stats.commands.get();
+            this.retransmissions = stats.retransmissions.get();
+            this.nacks           = stats.nacks.get();
+            this.timeouts        = stats.timeouts.get();
+            this.lockWait        = stats.lockWait.getSummary();
+            this.transmit        = stats.transmit.getSummary();
+            this.ack             = stats.ack.getSummary();
+            this.response        = stats.response.getSummary();
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final CommandStats totals = new CommandStats();
+    protected final ConcurrentMap<Class<? extends LynxMessage>, CommandStats> perCommand = new ConcurrentHashMap<Class<? extends LynxMessage>, CommandStats>();
+    protected volatile long nsStart = System.nanoTime();
+
+    //----------------------------------------------------------------------------------------------
+    // Recording
+    //----------------------------------------------------------------------------------------------
+
+    public void noteCommand(LynxMessage message)
+        {
+        totals.commands.incrementAndGet();
+        statsFor(message).commands.incrementAndGet();
+        }
+
+    public void noteLockWait(LynxMessage message, long nsWait)
+        {
+        totals.lockWait.record(nsWait);
+        statsFor(message).lockWait.record(nsWait);
+        }
+
+    public void noteTransmit(LynxMessage message, long nsTransmit)
+        {
+        totals.transmit.record(nsTransmit);
+        statsFor(message).transmit.record(nsTransmit);
+        }
+
+    /** Records the time between transmission and the ack or (if isResponse) response to it */
+    public void noteRoundTrip(LynxMessage message, boolean isResponse, long nsRoundTrip)
+        {
+        (isResponse ? totals.response : totals.ack).record(nsRoundTrip);
+        CommandStats stats = statsFor(message);
+        (isResponse ? stats.response : stats.ack).record(nsRoundTrip);
+        }
+
+    public void noteRetransmission(LynxMessage message)
+        {
+        totals.retransmissions.incrementAndGet();
+        statsFor(message).retransmissions.incrementAndGet();
+        }
+
+    public void noteNack(LynxMessage message)
+        {
+        totals.nacks.incrementAndGet();
+        statsFor(message).nacks.incrementAndGet();
+        }
+
+    public void noteTimeout(LynxMessage message)
+        {
+        totals.timeouts.incrementAndGet();
+        statsFor(message).timeouts.incrementAndGet();
+        }
+
+    protected CommandStats statsFor(LynxMessage message)
+        {
+        Class<? extends LynxMessage> clazz = message.getClass();
+        CommandStats result = perCommand.get(clazz);
+        if (result == null)
+            {
+            CommandStats stats = new CommandStats();
+            result = perCommand.putIfAbsent(clazz, stats);
+            if (result == null)
+                {
+                result = stats;
+                }
+            }
+        return result;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Querying
+    //----------------------------------------------------------------------------------------------
+
+    public void reset()
+        {
+        totals.reset();
+        for (CommandStats stats : perCommand.values())
+            {
+            stats.reset();
+            }
+        nsStart = System.nanoTime();
+        }
+
+    public CommandStats getTotals()
+        {
+        return totals;
+        }
+
+    /** Returns the stats for the indicated command class, or null if no such command has been sent */
+    public CommandStats getCommandStats(Class<? extends LynxMessage> clazz)
+        {
+        return perCommand.get(clazz);
+        }
+
+    /** Returns the rate at which commands have been issued since construction or the last {@link #reset()} */
+    public double getCommandsPerSecond()
+        {
+        double seconds = (System.nanoTime() - nsStart) * 1e-9;
+        return seconds > 0 ? totals.commands.get() / seconds : 0;
+        }
+
+    /** Returns a plain-data snapshot of all the stats, suitable for (eg) serializing to JSON */
+    public Map<String, Object> getSummary()
+        {
+        Map<String, Object> commands = new LinkedHashMap<String, Object>();
+        for (Map.Entry<Class<? extends LynxMessage>, CommandStats> pair : perCommand.entrySet())
+            {
+            commands.put(pair.getKey().getSimpleName(), pair.getValue().getSummary());
+            }
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("commandsPerSecond", getCommandsPerSecond());
+        result.put("totals", totals.getSummary());
+        result.put("commands", commands);
+        return result;
+        }
+    }
@@ -78,6 +78,13 @@ public interface LynxUsbDevice extends RobotUsbModule, GlobalWarningSource, Robo
 
     void releaseNetworkTransmissionLock(@NonNull LynxMessage message) throws InterruptedException;
 
+    /** Sets the maximum number of messages that may be in flight at once on this USB device.
+     * The default of one fully serializes transmission; larger values enable pipelining.
+     * @see MessageKeyedLock */
+    void setTransmissionWindow(int windowSize);
+
+    int getTransmissionWindow();
+
     void transmit(LynxMessage message) throws InterruptedException;
 
     LynxUsbDeviceImpl getDelegationTarget();
@@ -186,6 +186,16 @@ public class LynxUsbDeviceDelegate implements LynxUsbDevice, HardwareDeviceClose
         assertOpen();
         delegate.releaseNetworkTransmissionLock(message);
         }
+    @Override public void setTransmissionWindow(int windowSize)
+        {
+        assertOpen();
+        delegate.setTransmissionWindow(windowSize);
+        }
+    @Override public int getTransmissionWindow()
+        {
+        assertOpen();
+        return delegate.getTransmissionWindow();
+        }
     @Override public void transmit(LynxMessage message) throws InterruptedException
         {
         assertOpen();
@@ -56,7 +56,6 @@ import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.SerialNumber;
 import com.qualcomm.robotcore.util.ThreadPool;
 import com.qualcomm.robotcore.util.TypeConversion;
-import com.qualcomm.robotcore.util.Util;
 import com.qualcomm.robotcore.util.WeakReferenceSet;
 
 import org.firstinspires.ftc.robotcore.internal.hardware.android.AndroidBoard;
@@ -70,6 +69,7 @@ import org.firstinspires.ftc.robotcore.internal.usb.exception.RobotUsbFTDIExcept
 import org.firstinspires.ftc.robotcore.internal.usb.exception.RobotUsbUnspecifiedException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -116,6 +116,7 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
     protected       boolean                                 isEngaged;
     protected       boolean                                 wasPollingWhenEngaged;
     protected final Object                                  engageLock = new Object();  // must hold to access isEngaged
+    protected       byte[][]                                transmitBuffers = new byte[0][]; // by length; guarded by engageLock
 
     // The lynx hw schematic puts the reset and prog lines on particular pins, CBUS0 and CBUS1 respectively
     protected final static int cbusNReset           = 0x01;
@@ -650,6 +651,7 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
         LynxDiscoveryResponse incomingResponse = new LynxDiscoveryResponse();
         incomingResponse.setSerialization(datagram);
         incomingResponse.loadFromSerialization();
+        incomingResponse.forgetSerialization();
 
         RobotLog.vv(TAG, "onLynxDiscoveryResponseReceived()... module#=%d isParent=%s", incomingResponse.getDiscoveredModuleAddress(), Boolean.toString(incomingResponse.isParent()));
         try {
@@ -701,7 +703,7 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
 
     /* Because there is no collision management for the RS485 child bus, it is ill-advised for the
      * Host to concurrently expect data from multiple RS485 child bus siblings (waiting for
-     * acknowledgement or requested data).
+     * acknowledgement or requested data). The lock enforces that even when pipelining.
      */
     @Override public void acquireNetworkTransmissionLock(@NonNull LynxMessage message) throws InterruptedException
         {
@@ -713,6 +715,24 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
         this.networkTransmissionLock.release(message);
         }
 
+    /**
+     * Opts in to pipelined transmission: up to windowSize messages may be awaiting their ack or
+     * response at once. Replies are matched to their commands by message number in
+     * {@link LynxModule#onIncomingDatagramReceived(LynxDatagram)}, and each command still
+     * retransmits and times out individually. Only messages to the USB-attached parent module
+     * overlap one another; see {@link MessageKeyedLock} for why the RS485 children may not.
+     */
+    @Override public void setTransmissionWindow(int windowSize)
+        {
+        RobotLog.vv(TAG, "setTransmissionWindow(%d) serial=%s", windowSize, serialNumber);
+        this.networkTransmissionLock.setWindowSize(windowSize);
+        }
+
+    @Override public int getTransmissionWindow()
+        {
+        return this.networkTransmissionLock.getWindowSize();
+        }
+
     protected void startPollingForIncomingDatagrams()
         {
         if (incomingDatagramPoller == null)
@@ -776,7 +796,8 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
                         RobotLog.vv(TAG, "xmit'ing: mod=%d cmd=0x%02x(%s) msg#=%d ref#=%d ", message.getModuleAddress(), message.getCommandNumber(), message.getClass().getSimpleName(), message.getMessageNumber(), message.getReferenceNumber());
                         }
 
-                    byte[] bytes = datagram.toByteArray();
+                    byte[] bytes = transmitBuffer(datagram.updatePacketLength());
+                    datagram.toByteArray(bytes);
 
                     try {
                         this.robotUsbDevice.write(bytes);
@@ -817,6 +838,23 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
         message.noteHasBeenTransmitted();
         }
 
+    /** Returns a buffer of exactly the indicated size in which to serialize a datagram for
+     * transmission. Such buffers are reused, which is safe as we only use them under engageLock. */
+    protected byte[] transmitBuffer(int cb)
+        {
+        if (this.transmitBuffers.length <= cb)
+            {
+            this.transmitBuffers = Arrays.copyOf(this.transmitBuffers, cb + 1);
+            }
+        byte[] result = this.transmitBuffers[cb];
+        if (result == null)
+            {
+            result = LynxDatagram.allocateBuffer(cb);
+            this.transmitBuffers[cb] = result;
+            }
+        return result;
+        }
+
     protected void shutdownAbnormally()
         {
         this.hasShutdownAbnormally = true;
@@ -847,6 +885,12 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
         byte[]  prefix         = new byte[4];
         boolean isSynchronized = false;
 
+        // Reused from packet to packet: each datagram is fully processed before the next is read
+        // Room up front for all but unusually large datagrams, so that readIncomingDatagram() seldom has to fall back
+        byte[]       packet            = new byte[LynxDatagram.getFixedPacketLength() + 256];
+        LynxDatagram datagram          = new LynxDatagram();
+        TimeWindow   payloadTimeWindow = new TimeWindow();
+
         @Override public void run()
             {
             ThreadPool.logThreadLifeCycle("lynx incoming datagrams", new Runnable()
@@ -883,10 +927,15 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
             }
 
         void readIncomingBytes(byte[] buffer, int cbToRead, @Nullable TimeWindow timeWindow) throws InterruptedException, RobotUsbException
+            {
+            readIncomingBytes(buffer, 0, cbToRead, timeWindow);
+            }
+
+        void readIncomingBytes(byte[] buffer, int ibFirst, int cbToRead, @Nullable TimeWindow timeWindow) throws InterruptedException, RobotUsbException
             {
             // We specify an essentially infinite read timeout waiting for the next packet to come in
             long msReadTimeout = Integer.MAX_VALUE;
-            int cbRead = robotUsbDevice.read(buffer, 0, cbToRead, msReadTimeout, timeWindow);
+            int cbRead = robotUsbDevice.read(buffer, ibFirst, cbToRead, msReadTimeout, timeWindow);
             if (cbRead == cbToRead)
                 {
                 // We got all the data we came for. Just return gracefully
@@ -906,6 +955,22 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
                 }
             }
 
+        /**
+         * Reads a whole datagram into {@link #packet} with one call. Returns its length, or a
+         * negative value if the incoming data isn't the start of a datagram that will fit.
+         */
+        int readIncomingDatagram(RobotUsbDeviceFtdi deviceFtdi, @Nullable TimeWindow timeWindow) throws InterruptedException, RobotUsbException
+            {
+            // As in readIncomingBytes(), an essentially infinite timeout
+            int cbRead = deviceFtdi.readFrame(LynxDatagram.frameBytes, 2, packet, Integer.MAX_VALUE, timeWindow);
+            if (cbRead == 0)
+                {
+                RobotLog.ee(TAG, "readIncomingDatagram() cbRead=0: throwing InterruptedException");
+                throw new InterruptedException("interrupt during robotUsbDevice.readFrame()");
+                }
+            return cbRead;
+            }
+
         byte readSingleByte(byte[] buffer) throws InterruptedException, RobotUsbException
             {
             readIncomingBytes(buffer, 1, null);
@@ -917,57 +982,80 @@ public class LynxUsbDeviceImpl extends ArmableUsbDevice implements LynxUsbDevice
             while (!stopRequested && !Thread.currentThread().isInterrupted() && !hasShutdownAbnormally())
                 {
                 try {
-                    if (!isSynchronized)
+                    int cbPacketLength;
+                    if (isSynchronized && robotUsbDevice instanceof RobotUsbDeviceFtdi)
                         {
-                        // Synchronize by looking for the first framing byte
-                        if (readSingleByte(scratch) != LynxDatagram.frameBytes[0])
+                        // Fast path: the driver checks the framing and length in place in its read
+                        // buffer, and hands us the whole datagram in one copy. If it's not happy, fall
+                        // back to the slow path, which also copes with datagrams larger than our buffer.
+                        payloadTimeWindow.clear();
+                        cbPacketLength = readIncomingDatagram((RobotUsbDeviceFtdi)robotUsbDevice, payloadTimeWindow);
+                        if (cbPacketLength < 0)
                             {
+                            isSynchronized = false;
                             continue;
                             }
-
-                        // Having found the first, if we don't next see the second, then go back to looking for the first
-                        if (readSingleByte(scratch) != LynxDatagram.frameBytes[1])
+                        }
+                    else
+                        {
+                        if (!isSynchronized)
                             {
-                            continue;
-                            }
+                            // Synchronize by looking for the first framing byte
+                            if (readSingleByte(scratch) != LynxDatagram.frameBytes[0])
+                                {
+                                continue;
+                                }
 
-                        // Read the packet length
-                        readIncomingBytes(scratch, 2, null);
+                            // Having found the first, if we don't next see the second, then go back to looking for the first
+                            if (readSingleByte(scratch) != LynxDatagram.frameBytes[1])
+                                {
+                                continue;
+                                }
 
-                        // Assemble the prefix
-                        System.arraycopy(LynxDatagram.frameBytes, 0, prefix, 0, 2);
-                        System.arraycopy(scratch,                 0, prefix, 2, 2);
+                            // Read the packet length
+                            readIncomingBytes(scratch, 2, null);
 
-                        // We think we are in sync. Next time, just try the faster path
-                        RobotLog.vv(TAG, "synchronization gained: serial=%s", serialNumber);
-                        isSynchronized = true;
-                        }
-                    else
-                        {
-                        // Read the prefix in fewer read calls for better performance
-                        readIncomingBytes(prefix, 4, null);
+                            // Assemble the prefix
+                            System.arraycopy(LynxDatagram.frameBytes, 0, prefix, 0, 2);
+                            System.arraycopy(scratch,                 0, prefix, 2, 2);
 
-                        // If we're not in sync, then go back to the slow way
-                        if (!LynxDatagram.beginsWithFraming(prefix))
+                            // We think we are in sync. Next time, just try the faster path
+                            RobotLog.vv(TAG, "synchronization gained: serial=%s", serialNumber);
+                            isSynchronized = true;
+                            }
+                        else
                             {
-                            RobotLog.vv(TAG, "synchronization lost: serial=%s", serialNumber);
-                            isSynchronized = false;
-                            continue;
+                            // Read the prefix in fewer read calls for better performance
+                            readIncomingBytes(prefix, 4, null);
+
+                            // If we're not in sync, then go back to the slow way
+                            if (!LynxDatagram.beginsWithFraming(prefix))
+                                {
+                                RobotLog.vv(TAG, "synchronization lost: serial=%s", serialNumber);
+                                isSynchronized = false;
+                                continue;
+                                }
                             }
-                        }
 
-                    // Compute the packet length, allocate a buffer for the suffix, and read same
-                    int cbPacketLength = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(prefix, 2, LynxDatagram.LYNX_ENDIAN));
-                    int cbSuffix = cbPacketLength - LynxDatagram.cbFrameBytesAndPacketLength;
-                    byte[] suffix = new byte[cbSuffix];
-                    TimeWindow payloadTimeWindow = new TimeWindow();
-                    readIncomingBytes(suffix, cbSuffix, payloadTimeWindow);
+                        // Compute the packet length, make sure our packet buffer can hold it, and read the suffix in after the prefix
+                        cbPacketLength = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(prefix, 2, LynxDatagram.LYNX_ENDIAN));
+                        int cbSuffix = cbPacketLength - LynxDatagram.cbFrameBytesAndPacketLength;
+                        if (cbSuffix < 0)
+                            {
+                            throw new RobotUsbUnspecifiedException("invalid Lynx packet length: %d", cbPacketLength);
+                            }
+                        if (packet.length < cbPacketLength)
+                            {
+                            packet = LynxDatagram.allocateBuffer(cbPacketLength);
+                            }
+                        System.arraycopy(prefix, 0, packet, 0, LynxDatagram.cbFrameBytesAndPacketLength);
+                        payloadTimeWindow.clear();
+                        readIncomingBytes(packet, LynxDatagram.cbFrameBytesAndPacketLength, cbSuffix, payloadTimeWindow);
+                        }
 
                     // Parse the message structure of the datagram
-                    byte[] completePacket = Util.concatenateByteArrays(prefix, suffix);
-                    LynxDatagram datagram = new LynxDatagram();
                     datagram.setPayloadTimeWindow(payloadTimeWindow);
-                    datagram.fromByteArray(completePacket);
+                    datagram.fromByteArray(packet, cbPacketLength);
                     if (datagram.isChecksumValid())
                         {
                         if (DEBUG_LOG_DATAGRAMS)
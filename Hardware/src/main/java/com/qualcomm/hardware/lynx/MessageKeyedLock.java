@@ -38,13 +38,22 @@ import com.qualcomm.hardware.lynx.commands.LynxMessage;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * MessageKeyedLock is a recursively-acquirable lock that is keyed by a LynxMessage
+ * MessageKeyedLock is a recursively-acquirable lock that is keyed by a LynxMessage.
+ *
+ * By default, the lock has but one owner at a time. If a window size larger than one is set,
+ * then up to that many messages may own the lock concurrently (and so be in flight on the
+ * network at the same time), subject to the constraint that at most one of them may be addressed
+ * to a module other than the USB-attached parent. Only the parent is reached without traversing
+ * the RS485 child bus, which has no collision management: we must never be awaiting replies from
+ * two modules thereon at once.
  */
 public class MessageKeyedLock
     {
@@ -52,12 +61,19 @@ public class MessageKeyedLock
     // State
     //----------------------------------------------------------------------------------------------
 
+    protected static class Ownership
+        {
+        int     lockCount;
+        long    lockAquisitionTime;
+        boolean isParentMessage;
+        }
+
     private final    String        name;
     private final    Lock          lock;
     private final    Condition     condition;
-    private volatile LynxMessage   lockOwner;
-    private          int           lockCount;
-    private          long          lockAquisitionTime;
+    private final    Map<LynxMessage, Ownership> lockOwners;    // in order of acquisition
+    private          int           childOwnerCount;
+    private volatile int           windowSize;
     private          long          nanoLockAquisitionTimeMax;
 
     //----------------------------------------------------------------------------------------------
@@ -74,12 +90,38 @@ public class MessageKeyedLock
         this.name       = name;
         this.lock       = new ReentrantLock();
         this.condition  = this.lock.newCondition();
-        this.lockOwner  = null;
-        this.lockCount  = 0;
-        this.lockAquisitionTime        = 0;
+        this.lockOwners = new LinkedHashMap<LynxMessage, Ownership>();
+        this.childOwnerCount = 0;
+        this.windowSize = 1;
         this.nanoLockAquisitionTimeMax = msAquisitionTimeout * ElapsedTime.MILLIS_IN_NANO;
         }
 
+    //----------------------------------------------------------------------------------------------
+    // Accessors
+    //----------------------------------------------------------------------------------------------
+
+    public int getWindowSize()
+        {
+        return this.windowSize;
+        }
+
+    /** Sets the maximum number of messages that may concurrently own the lock. One, the default,
+     * provides fully serialized transmission. */
+    public void setWindowSize(int windowSize)
+        {
+        if (windowSize < 1) throw new IllegalArgumentException(String.format("illegal window size: %d", windowSize));
+
+        this.lock.lock();
+        try {
+            this.windowSize = windowSize;
+            this.condition.signalAll();
+            }
+        finally
+            {
+            this.lock.unlock();
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // Operations
     //----------------------------------------------------------------------------------------------
@@ -97,9 +139,8 @@ public class MessageKeyedLock
         {
         this.lock.lockInterruptibly();
         try {
-            this.lockOwner = null;
-            this.lockCount = 0;
-            this.lockAquisitionTime = 0;
+            this.lockOwners.clear();
+            this.childOwnerCount = 0;
             this.condition.signalAll();  // probably not needed, but harmless
             }
         finally
@@ -108,38 +149,60 @@ public class MessageKeyedLock
             }
         }
 
+    protected boolean isParentMessage(LynxMessage message)
+        {
+        return message.getModule() != null && message.getModule().isParent();
+        }
+
+    /** Answers whether a new owner with the indicated destination may now join the current owners */
+    protected boolean canAdmit(boolean isParentMessage)
+        {
+        if (this.lockOwners.isEmpty())
+            return true;
+        if (this.lockOwners.size() >= this.windowSize)
+            return false;
+        return isParentMessage || this.childOwnerCount == 0;
+        }
+
     public void acquire(@NonNull LynxMessage message) throws InterruptedException
         {
         if (message == null) throw new IllegalArgumentException("MessageKeyedLock.acquire: null message");
 
         this.lock.lockInterruptibly();
         try {
-            if (this.lockOwner != message)
+            Ownership ownership = this.lockOwners.get(message);
+            if (ownership == null)
                 {
-                while (this.lockOwner != null)
+                boolean isParentMessage = isParentMessage(message);
+                while (!canAdmit(isParentMessage))
                     {
+                    Map.Entry<LynxMessage, Ownership> oldest = this.lockOwners.entrySet().iterator().next();
                     long now = System.nanoTime();
-                    if (now - this.lockAquisitionTime > nanoLockAquisitionTimeMax)
+                    if (now - oldest.getValue().lockAquisitionTime > nanoLockAquisitionTimeMax)
                         {
                         // Something really odd has happened with the locking logic: it's taking way
-                        // too long. Reset and get out rather than locking up forever.
-                        loge("#### abandoning lock: old=%s(%d)", this.lockOwner.getClass().getSimpleName(), this.lockOwner.getMessageNumber());
+                        // too long. Evict the oldest owner rather than locking up forever.
+                        loge("#### abandoning lock: old=%s(%d)", oldest.getKey().getClass().getSimpleName(), oldest.getKey().getMessageNumber());
                         loge("                      new=%s(%d)", message.getClass().getSimpleName(), message.getMessageNumber());
-                        break;
+                        removeOwner(oldest.getKey());
+                        continue;
                         }
                     this.condition.await(nanoLockAquisitionTimeMax / 4, TimeUnit.NANOSECONDS);
                     }
-                this.lockCount = 0;
-                this.lockAquisitionTime = System.nanoTime();
-                this.lockOwner = message;
-                if (LynxUsbDeviceImpl.DEBUG_LOG_DATAGRAMS_LOCK) logv("lock %s msg#=%d", this.lockOwner.getClass().getSimpleName(), this.lockOwner.getMessageNumber());
+                ownership = new Ownership();
+                ownership.lockCount = 0;
+                ownership.lockAquisitionTime = System.nanoTime();
+                ownership.isParentMessage = isParentMessage;
+                this.lockOwners.put(message, ownership);
+                if (!isParentMessage) this.childOwnerCount++;
+                if (LynxUsbDeviceImpl.DEBUG_LOG_DATAGRAMS_LOCK) logv("lock %s msg#=%d owners=%d", message.getClass().getSimpleName(), message.getMessageNumber(), this.lockOwners.size());
                 }
             else
                 {
                 logv("lock recursively acquired");
                 }
 
-            this.lockCount++;
+            ownership.lockCount++;
             }
         finally
             {
@@ -153,13 +216,13 @@ public class MessageKeyedLock
 
         this.lock.lockInterruptibly();
         try {
-            if (this.lockOwner == message)
+            Ownership ownership = this.lockOwners.get(message);
+            if (ownership != null)
                 {
-                if (--this.lockCount == 0)
+                if (--ownership.lockCount == 0)
                     {
-                    if (LynxUsbDeviceImpl.DEBUG_LOG_DATAGRAMS_LOCK) logv("unlock %s msg#=%d", this.lockOwner.getClass().getSimpleName(), this.lockOwner.getMessageNumber());
-                    this.lockOwner = null;
-                    this.condition.signalAll();
+                    if (LynxUsbDeviceImpl.DEBUG_LOG_DATAGRAMS_LOCK) logv("unlock %s msg#=%d", message.getClass().getSimpleName(), message.getMessageNumber());
+                    removeOwner(message);
                     }
                 else
                     {
@@ -168,12 +231,13 @@ public class MessageKeyedLock
                 }
             else
                 {
-                if (this.lockOwner != null)
+                if (!this.lockOwners.isEmpty())
                     {
+                    LynxMessage oldest = this.lockOwners.keySet().iterator().next();
                     loge("#### incorrect owner releasing message keyed lock: ignored: old=%s(%d:%d)",
-                            this.lockOwner.getClass().getSimpleName(),
-                            this.lockOwner.getModuleAddress(),
-                            this.lockOwner.getMessageNumber());
+                            oldest.getClass().getSimpleName(),
+                            oldest.getModuleAddress(),
+                            oldest.getMessageNumber());
                     loge("                                                            new=%s(%d:%d)",
                             message.getClass().getSimpleName(),
                             message.getModuleAddress(),
@@ -190,4 +254,15 @@ public class MessageKeyedLock
             this.lock.unlock();
             }
         }
+
+    /** Must be called with {@link #lock} held */
+    private void removeOwner(LynxMessage message)
+        {
+        Ownership ownership = this.lockOwners.remove(message);
+        if (ownership != null)
+            {
+            if (!ownership.isParentMessage) this.childOwnerCount--;
+            this.condition.signalAll();
+            }
+        }
     }
@@ -41,9 +41,10 @@ import com.qualcomm.robotcore.util.TypeConversion;
 
 import org.firstinspires.ftc.robotcore.internal.hardware.TimeWindow;
 
-import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A {@link LynxDatagram} represents the quantum of transmission of Lynx data between host
@@ -82,6 +83,24 @@ public class LynxDatagram
         return buffer.get()==frameBytes[0] && buffer.get()==frameBytes[1];
         }
 
+    /**
+     * Counts the byte buffers allocated in the course of encoding and decoding datagrams. Reused
+     * buffers are not counted, so in a steady state that uses only {@link #toByteArray(byte[])} and
+     * {@link #fromByteArray(byte[], int)} on long-lived datagrams, this stops increasing.
+     */
+    protected static final AtomicLong bufferAllocationCount = new AtomicLong(0);
+
+    public static long getBufferAllocationCount()
+        {
+        return bufferAllocationCount.get();
+        }
+
+    public static byte[] allocateBuffer(int cb)
+        {
+        bufferAllocationCount.incrementAndGet();
+        return new byte[cb];
+        }
+
     //----------------------------------------------------------------------------------------------
     // State
     //----------------------------------------------------------------------------------------------
@@ -135,6 +154,11 @@ public class LynxDatagram
      */
     private @Nullable TimeWindow payloadTimeWindow;
 
+    /**
+     * Payload buffers retained for reuse by {@link #fromByteArray(byte[], int)}, indexed by length
+     */
+    private @Nullable byte[][] payloadBuffers;
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -270,14 +294,17 @@ public class LynxDatagram
         }
     public byte computeChecksum()
         {
+        // The sum is independent of byte order, so no need to actually serialize the shorts
         byte result = 0;
         result = checksumBytes(result, frameBytes);
-        result = checksumBytes(result, TypeConversion.shortToByteArray(this.packetLength, LYNX_ENDIAN));
+        result += (byte)this.packetLength;
+        result += (byte)(this.packetLength >> 8);
         result += this.destModuleAddress;
         result += this.sourceModuleAddress;
         result += this.messageNumber;
         result += this.referenceNumber;
-        result = checksumBytes(result, TypeConversion.shortToByteArray(this.packetId, LYNX_ENDIAN));
+        result += (byte)this.packetId;
+        result += (byte)(this.packetId >> 8);
         result = checksumBytes(result, this.payloadData);
         return result;
         }
@@ -299,50 +326,91 @@ public class LynxDatagram
     //----------------------------------------------------------------------------------------------
 
     public byte[] toByteArray()
+        {
+        byte[] result = allocateBuffer(updatePacketLength());
+        toByteArray(result);
+        return result;
+        }
+
+    /**
+     * Serializes this datagram into the start of the indicated buffer, which must be large
+     * enough to hold it, and returns the number of bytes so written. No allocation is performed.
+     */
+    public int toByteArray(byte[] buffer)
         {
         int cb = updatePacketLength();
         setChecksum(computeChecksum());
 
-        ByteBuffer buffer = ByteBuffer.allocate(cb);
-        buffer.order(LYNX_ENDIAN);
-
-        buffer.put(frameBytes);
-        buffer.putShort(this.packetLength);
-        buffer.put(this.destModuleAddress);
-        buffer.put(this.sourceModuleAddress);
-        buffer.put(this.messageNumber);
-        buffer.put(this.referenceNumber);
-        buffer.putShort(this.packetId);
-        buffer.put(this.payloadData);
-        buffer.put(this.checksum);
+        int ib = 0;
+        buffer[ib++] = frameBytes[0];
+        buffer[ib++] = frameBytes[1];
+        buffer[ib++] = (byte)this.packetLength;           // LYNX_ENDIAN is little endian
+        buffer[ib++] = (byte)(this.packetLength >> 8);
+        buffer[ib++] = this.destModuleAddress;
+        buffer[ib++] = this.sourceModuleAddress;
+        buffer[ib++] = this.messageNumber;
+        buffer[ib++] = this.referenceNumber;
+        buffer[ib++] = (byte)this.packetId;
+        buffer[ib++] = (byte)(this.packetId >> 8);
+        System.arraycopy(this.payloadData, 0, buffer, ib, this.payloadData.length);
+        ib += this.payloadData.length;
+        buffer[ib] = this.checksum;
 
-        return buffer.array();
+        return cb;
         }
 
     public void fromByteArray(byte[] byteArray) throws RobotCoreException
         {
-        ByteBuffer buffer = ByteBuffer.wrap(byteArray);
-        buffer.order(LYNX_ENDIAN);
-
-        try {
-            if (!beginsWithFraming(buffer)) throw illegalDatagram();
-            this.packetLength  = buffer.getShort();
-            this.destModuleAddress = buffer.get();
-            this.sourceModuleAddress = buffer.get();
-            this.messageNumber = buffer.get();
-            this.referenceNumber = buffer.get();
-            this.packetId = buffer.getShort();
-            //
-            int cbPayload = this.getPacketLength() - getFixedPacketLength();
-            this.payloadData = new byte[cbPayload];
-            buffer.get(this.payloadData);
-            //
-            this.checksum = buffer.get();
+        fromByteArray(byteArray, byteArray.length);
+        }
+
+    /**
+     * Deserializes this datagram from the first cbPacket bytes of the indicated buffer. The
+     * payload buffer is retained and reused by subsequent calls on this same datagram, so
+     * its contents must be consumed before the datagram is next deserialized into.
+     */
+    public void fromByteArray(byte[] byteArray, int cbPacket) throws RobotCoreException
+        {
+        if (cbPacket < getFixedPacketLength()) throw underflow();
+        if (byteArray[0] != frameBytes[0] || byteArray[1] != frameBytes[1]) throw illegalDatagram();
+
+        int ib = 2;
+        this.packetLength        = (short)((byteArray[ib++] & 0xFF) | (byteArray[ib++] << 8));
+        this.destModuleAddress   = byteArray[ib++];
+        this.sourceModuleAddress = byteArray[ib++];
+        this.messageNumber       = byteArray[ib++];
+        this.referenceNumber     = byteArray[ib++];
+        this.packetId            = (short)((byteArray[ib++] & 0xFF) | (byteArray[ib++] << 8));
+        //
+        int cbPayload = this.getPacketLength() - getFixedPacketLength();
+        if (cbPayload < 0 || ib + cbPayload + 1 > cbPacket) throw underflow();
+        this.payloadData = reusablePayloadBuffer(cbPayload);
+        System.arraycopy(byteArray, ib, this.payloadData, 0, cbPayload);
+        ib += cbPayload;
+        //
+        this.checksum = byteArray[ib];
+        }
+
+    private byte[] reusablePayloadBuffer(int cbPayload)
+        {
+        if (this.payloadBuffers == null || this.payloadBuffers.length <= cbPayload)
+            {
+            this.payloadBuffers = this.payloadBuffers == null
+                    ? new byte[cbPayload + 1][]
+                    : Arrays.copyOf(this.payloadBuffers, cbPayload + 1);
             }
-        catch (BufferUnderflowException e)
+        byte[] result = this.payloadBuffers[cbPayload];
+        if (result == null)
             {
-            throw RobotCoreException.createChained(e, "Lynx datagram buffer underflow");
+            result = allocateBuffer(cbPayload);
+            this.payloadBuffers[cbPayload] = result;
             }
+        return result;
+        }
+
+    private RobotCoreException underflow()
+        {
+        return new RobotCoreException("Lynx datagram buffer underflow");
         }
 
     private RobotCoreException illegalDatagram()
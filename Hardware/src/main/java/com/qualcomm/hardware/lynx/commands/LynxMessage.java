@@ -206,7 +206,8 @@ public abstract class LynxMessage
 
     public void loadFromSerialization()
         {
-        this.setPayloadTimeWindow(this.serialization.getPayloadTimeWindow());
+        // Copy the window, as the serialization may be reused once we've loaded from it
+        this.setPayloadTimeWindow(new TimeWindow(this.serialization.getPayloadTimeWindow()));
         this.fromPayloadByteArray(this.serialization.getPayloadData());
         this.setMessageNumber(this.serialization.getMessageNumber());
         this.setReferenceNumber(this.serialization.getReferenceNumber());
@@ -0,0 +1,253 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx.commands;
+
+import android.support.annotation.Nullable;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.hardware.lynx.commands.core.LynxFtdiResetQueryResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetADCResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetAllDIOInputsResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetBulkInputDataResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetDIODirectionResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorChannelCurrentAlertLevelResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorChannelEnableResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorChannelModeResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorConstantPowerResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorEncoderPositionResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorPIDControlLoopCoefficientsResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorPIDFControlLoopCoefficientsResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorTargetPositionResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetMotorTargetVelocityResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetPWMConfigurationResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetPWMEnableResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetPWMPulseWidthResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetServoConfigurationResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetServoEnableResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetServoPulseWidthResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxGetSingleDIOInputResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxI2cConfigureQueryResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxI2cReadStatusQueryResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxI2cWriteStatusQueryResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxIsMotorAtTargetResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxPhoneChargeQueryResponse;
+import com.qualcomm.hardware.lynx.commands.core.LynxReadVersionStringResponse;
+import com.qualcomm.hardware.lynx.commands.standard.LynxAck;
+import com.qualcomm.hardware.lynx.commands.standard.LynxGetModuleLEDColorResponse;
+import com.qualcomm.hardware.lynx.commands.standard.LynxGetModuleLEDPatternResponse;
+import com.qualcomm.hardware.lynx.commands.standard.LynxGetModuleStatusResponse;
+import com.qualcomm.hardware.lynx.commands.standard.LynxNack;
+import com.qualcomm.hardware.lynx.commands.standard.LynxQueryInterfaceResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link LynxMessageFactory} instantiates the messages we receive from modules without
+ * resorting to reflection, which is slow on ART and is otherwise paid on every incoming packet.
+ * Messages that are not registered here are instantiated reflectively instead.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class LynxMessageFactory
+    {
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    public abstract LynxMessage newInstance(LynxModule module);
+
+    //----------------------------------------------------------------------------------------------
+    // Registry
+    //----------------------------------------------------------------------------------------------
+
+    // Only written during static initialization, so needs no synchronization
+    private static final Map<Class<? extends LynxMessage>, LynxMessageFactory> factories = new HashMap<Class<? extends LynxMessage>, LynxMessageFactory>();
+
+    /** Returns the factory for the indicated message class, or null if there isn't one */
+    public static @Nullable LynxMessageFactory forClass(Class<? extends LynxMessage> clazz)
+        {
+        return factories.get(clazz);
+        }
+
+    /** Returns the message classes for which factories are registered */
+    public static Set<Class<? extends LynxMessage>> getRegisteredClasses()
+        {
+        return Collections.unmodifiableSet(factories.keySet());
+        }
+
+    private static void register(Class<? extends LynxMessage> clazz, LynxMessageFactory factory)
+        {
+        factories.put(clazz, factory);
+        }
+
+    static
+        {
+        // Standard messages
+        register(LynxAck.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxAck(module); }
+            });
+        register(LynxNack.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxNack(module); }
+            });
+        register(LynxGetModuleLEDColorResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetModuleLEDColorResponse(module); }
+            });
+        register(LynxGetModuleLEDPatternResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetModuleLEDPatternResponse(module); }
+            });
+        register(LynxGetModuleStatusResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetModuleStatusResponse(module); }
+            });
+        register(LynxQueryInterfaceResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxQueryInterfaceResponse(module); }
+            });
+
+        // Responses in the DEKA interface
+        register(LynxFtdiResetQueryResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxFtdiResetQueryResponse(module); }
+            });
+        register(LynxGetADCResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetADCResponse(module); }
+            });
+        register(LynxGetAllDIOInputsResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetAllDIOInputsResponse(module); }
+            });
+        register(LynxGetBulkInputDataResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetBulkInputDataResponse(module); }
+            });
+        register(LynxGetDIODirectionResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetDIODirectionResponse(module); }
+            });
+        register(LynxGetMotorChannelCurrentAlertLevelResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorChannelCurrentAlertLevelResponse(module); }
+            });
+        register(LynxGetMotorChannelEnableResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorChannelEnableResponse(module); }
+            });
+        register(LynxGetMotorChannelModeResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorChannelModeResponse(module); }
+            });
+        register(LynxGetMotorConstantPowerResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorConstantPowerResponse(module); }
+            });
+        register(LynxGetMotorEncoderPositionResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorEncoderPositionResponse(module); }
+            });
+        register(LynxGetMotorPIDControlLoopCoefficientsResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorPIDControlLoopCoefficientsResponse(module); }
+            });
+        register(LynxGetMotorPIDFControlLoopCoefficientsResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorPIDFControlLoopCoefficientsResponse(module); }
+            });
+        register(LynxGetMotorTargetPositionResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorTargetPositionResponse(module); }
+            });
+        register(LynxGetMotorTargetVelocityResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetMotorTargetVelocityResponse(module); }
+            });
+        register(LynxGetPWMConfigurationResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetPWMConfigurationResponse(module); }
+            });
+        register(LynxGetPWMEnableResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetPWMEnableResponse(module); }
+            });
+        register(LynxGetPWMPulseWidthResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetPWMPulseWidthResponse(module); }
+            });
+        register(LynxGetServoConfigurationResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetServoConfigurationResponse(module); }
+            });
+        register(LynxGetServoEnableResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetServoEnableResponse(module); }
+            });
+        register(LynxGetServoPulseWidthResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetServoPulseWidthResponse(module); }
+            });
+        register(LynxGetSingleDIOInputResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxGetSingleDIOInputResponse(module); }
+            });
+        register(LynxI2cConfigureQueryResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxI2cConfigureQueryResponse(module); }
+            });
+        register(LynxI2cReadStatusQueryResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxI2cReadStatusQueryResponse(module); }
+            });
+        register(LynxI2cWriteStatusQueryResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxI2cWriteStatusQueryResponse(module); }
+            });
+        register(LynxIsMotorAtTargetResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxIsMotorAtTargetResponse(module); }
+            });
+        register(LynxPhoneChargeQueryResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxPhoneChargeQueryResponse(module); }
+            });
+        register(LynxReadVersionStringResponse.class, new LynxMessageFactory()
+            {
+            @Override public LynxMessage newInstance(LynxModule module) { return new LynxReadVersionStringResponse(module); }
+            });
+        }
+    }
@@ -0,0 +1,201 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.hardware.lynx.commands;
+
+import android.os.Debug;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.hardware.lynx.LynxModuleIntf;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link LynxMessageFactoryBenchmark} compares instantiating received messages through their
+ * registered {@link LynxMessageFactory} with instantiating them through a cached reflective
+ * constructor, as LynxModule did before factories existed. It reports the elapsed time and, by
+ * way of the {@link Debug} allocation counters, the objects allocated by the calling thread.
+ * It is meant to be run on the robot controller against a real module, e.g. from an opmode:
+ *
+ * <pre>
+ *     LynxMessageFactoryBenchmark.log(hardwareMap.getAll(LynxModule.class).get(0), 10000);
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class LynxMessageFactoryBenchmark
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    public static class Result
+        {
+        public final String name;
+        public final int    instanceCount;
+        public final long   nsElapsed;
+        public final int    allocationCount;
+        public final int    allocationBytes;
+
+        public Result(String name, int instanceCount, long nsElapsed, int allocationCount, int allocationBytes)
+            {
+            this.name            = name;
+            this.instanceCount   = instanceCount;
+            this.nsElapsed       = nsElapsed;
+            this.allocationCount = allocationCount;
+            this.allocationBytes = allocationBytes;
+            }
+
+        public double getNsPerInstance()           { return (double)nsElapsed / instanceCount; }
+        public double getAllocationsPerInstance()  { return (double)allocationCount / instanceCount; }
+        public double getBytesPerInstance()        { return (double)allocationBytes / instanceCount; }
+
+        @Override public String toString()
+            {
+            return String.format(Locale.US, "%s: n=%d %.0fns/msg %.2f allocs/msg %.0f bytes/msg",
+                    name, instanceCount, getNsPerInstance(), getAllocationsPerInstance(), getBytesPerInstance());
+            }
+        }
+
+    protected interface Instantiator
+        {
+        LynxMessage newInstance(int index) throws InstantiationException, IllegalAccessException, InvocationTargetException;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "LynxMessageFactoryBenchmark";
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /** Runs the benchmark and writes its results to the log */
+    public static void log(LynxModule module, int iterations)
+        {
+        try {
+            for (Result result : run(module, iterations))
+                {
+                RobotLog.ii(TAG, result.toString());
+                }
+            }
+        catch (ReflectiveOperationException|RuntimeException e)
+            {
+            RobotLog.ee(TAG, e, "benchmark failed");
+            }
+        }
+
+    /**
+     * Instantiates each message class that has a registered factory, iterations times over,
+     * first reflectively and then through its factory. Each is warmed up beforehand.
+     * @return the results of the reflective path, then of the factory path
+     */
+    public static List<Result> run(final LynxModule module, int iterations) throws NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException
+        {
+        final List<Constructor<? extends LynxMessage>> ctors = new ArrayList<Constructor<? extends LynxMessage>>();
+        final List<LynxMessageFactory> factories = new ArrayList<LynxMessageFactory>();
+        for (Class<? extends LynxMessage> clazz : LynxMessageFactory.getRegisteredClasses())
+            {
+            ctors.add(findCtor(clazz));
+            factories.add(LynxMessageFactory.forClass(clazz));
+            }
+
+        Instantiator reflective = new Instantiator()
+            {
+            @Override public LynxMessage newInstance(int index) throws InstantiationException, IllegalAccessException, InvocationTargetException
+                {
+                return ctors.get(index).newInstance(module);
+                }
+            };
+        Instantiator factory = new Instantiator()
+            {
+            @Override public LynxMessage newInstance(int index)
+                {
+                return factories.get(index).newInstance(module);
+                }
+            };
+
+        List<Result> results = new ArrayList<Result>();
+        measure("warmup", reflective, ctors.size(), iterations);
+        results.add(measure("reflective", reflective, ctors.size(), iterations));
+        measure("warmup", factory, factories.size(), iterations);
+        results.add(measure("factory", factory, factories.size(), iterations));
+        return results;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    /** Finds the constructor as LynxModule.MessageClassAndCtor.assignCtor() would absent a factory */
+    protected static Constructor<? extends LynxMessage> findCtor(Class<? extends LynxMessage> clazz) throws NoSuchMethodException
+        {
+        try {
+            return clazz.getConstructor(LynxModule.class);
+            }
+        catch (NoSuchMethodException ignored)
+            {
+            return clazz.getConstructor(LynxModuleIntf.class);
+            }
+        }
+
+    @SuppressWarnings("deprecation")
+    protected static Result measure(String name, Instantiator instantiator, int classCount, int iterations) throws InstantiationException, IllegalAccessException, InvocationTargetException
+        {
+        int instanceCount = 0;
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        long nsStart = System.nanoTime();
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++)
+                {
+                for (int index = 0; index < classCount; index++)
+                    {
+                    instantiator.newInstance(index);
+                    instanceCount++;
+                    }
+                }
+            return new Result(name, Math.max(1, instanceCount), System.nanoTime() - nsStart, Debug.getThreadAllocCount(), Debug.getThreadAllocSize());
+            }
+        finally
+            {
+            Debug.stopAllocCounting();
+            }
+        }
+    }
@@ -35,6 +35,7 @@ package com.qualcomm.hardware.lynx.commands;
 import com.qualcomm.hardware.lynx.LynxUnsupportedCommandException;
 import com.qualcomm.hardware.lynx.LynxModuleIntf;
 import com.qualcomm.hardware.lynx.LynxNackException;
+import com.qualcomm.hardware.lynx.LynxRoundTripEstimator;
 import com.qualcomm.hardware.lynx.commands.standard.LynxAck;
 import com.qualcomm.hardware.lynx.commands.standard.LynxNack;
 import com.qualcomm.robotcore.util.ElapsedTime;
@@ -335,11 +336,33 @@ public abstract class LynxRespondable<RESPONSE extends LynxMessage> extends Lynx
         return 100;
         }
 
+    /**
+     * Returns whether receiving this message more than once has the same effect on the module as
+     * receiving it once. Only such messages are retransmitted on an adaptive schedule; others wait
+     * the full {@link #getMsRetransmissionInterval()}, as a retransmission that turns out to have
+     * been spurious (an I2C transaction, say, or an encoder reset) would be acted on twice. Not
+     * every query qualifies: reading an I2C status consumes the pending result, for example. So
+     * messages must opt in; by default, none are considered idempotent.
+     */
+    protected boolean isIdempotent()
+        {
+        return false;
+        }
+
+    /**
+     * Waits for the latch, retransmitting as we go. The overall wait is bounded by the fixed
+     * {@link #getMsAwaitInterval()}. For idempotent messages, the interval between retransmissions
+     * adapts to the round trips actually being observed for this class of message on the module,
+     * doubling (up to the fixed {@link #getMsRetransmissionInterval()}) with each retransmission.
+     */
     protected void awaitAndRetransmit(CountDownLatch latch, LynxNack.ReasonCode nackCode, String message) throws InterruptedException
         {
         final long nsDeadline = System.nanoTime() + getMsAwaitInterval() * ElapsedTime.MILLIS_IN_NANO;
         final int msWaitInterval = getMsAwaitInterval();
-        final int msRetransmit = getMsRetransmissionInterval();
+        final int msRetransmitMax = getMsRetransmissionInterval();
+        final LynxRoundTripEstimator estimator = this.module.getRoundTripEstimator(this.getClass());
+        int msRetransmit = isIdempotent() ? estimator.getMsRetransmissionTimeout(msRetransmitMax) : msRetransmitMax;
+        boolean retransmitted = false;
 
         for (;;)
             {
@@ -348,6 +371,8 @@ public abstract class LynxRespondable<RESPONSE extends LynxMessage> extends Lynx
                 {
                 // Timed out. Pretend we got a nack.
                 RobotLog.v("timeout: abandoning waiting %dms for %s: cmd=%s mod=%d msg#=%d", msWaitInterval, message, this.getClass().getSimpleName(), this.getModuleAddress(), this.getMessageNumber());
+                estimator.noteTimeout();
+                this.module.getTransactionStats().noteTimeout(this);
                 this.onNackReceived(new LynxNack(this.module, nackCode));
                 return;
                 }
@@ -357,12 +382,23 @@ public abstract class LynxRespondable<RESPONSE extends LynxMessage> extends Lynx
 
             if (latch.await(msWait, TimeUnit.MILLISECONDS))
                 {
-                // all is well
+                // all is well. Only unambiguous round trips that actually went over the wire are sampled.
+                long nsLastTransmit = getNanotimeLastTransmit();
+                if (!retransmitted && nsLastTransmit != 0 && isAckOrResponseReceived())
+                    {
+                    long nsRoundTrip = System.nanoTime() - nsLastTransmit;
+                    estimator.noteRoundTrip(nsRoundTrip);
+                    this.module.getTransactionStats().noteRoundTrip(this, isResponseExpected(), nsRoundTrip);
+                    }
                 return;
                 }
 
-            // Retransmit
+            // Retransmit, backing off
             this.module.retransmit(this);
+            estimator.noteRetransmission();
+            this.module.getTransactionStats().noteRetransmission(this);
+            retransmitted = true;
+            msRetransmit  = Math.min(msRetransmit * 2, msRetransmitMax);
             }
         }
 
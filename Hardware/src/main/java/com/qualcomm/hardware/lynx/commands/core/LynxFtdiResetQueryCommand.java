@@ -71,6 +71,12 @@ public class LynxFtdiResetQueryCommand extends LynxDekaInterfaceCommand<LynxFtdi
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
 
     @Override
     public byte[] toPayloadByteArray()
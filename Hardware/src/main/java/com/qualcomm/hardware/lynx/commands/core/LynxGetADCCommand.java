@@ -113,6 +113,12 @@ public class LynxGetADCCommand extends LynxDekaInterfaceCommand<LynxGetADCRespon
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -73,6 +73,12 @@ public class LynxGetAllDIOInputsCommand extends LynxDekaInterfaceCommand<LynxGet
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
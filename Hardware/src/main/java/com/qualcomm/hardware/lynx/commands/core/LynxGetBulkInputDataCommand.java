@@ -71,6 +71,12 @@ public class LynxGetBulkInputDataCommand extends LynxDekaInterfaceCommand<LynxGe
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetDIODirectionCommand extends LynxDekaInterfaceCommand<LynxGet
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
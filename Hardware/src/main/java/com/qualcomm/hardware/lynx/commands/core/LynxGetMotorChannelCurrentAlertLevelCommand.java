@@ -86,6 +86,12 @@ public class LynxGetMotorChannelCurrentAlertLevelCommand extends LynxDekaInterfa
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetMotorChannelEnableCommand extends LynxDekaInterfaceCommand<L
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetMotorConstantPowerCommand extends LynxDekaInterfaceCommand<L
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
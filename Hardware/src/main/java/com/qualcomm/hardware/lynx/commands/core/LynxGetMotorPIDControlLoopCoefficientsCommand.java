@@ -96,6 +96,12 @@ public class LynxGetMotorPIDControlLoopCoefficientsCommand extends LynxDekaInter
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
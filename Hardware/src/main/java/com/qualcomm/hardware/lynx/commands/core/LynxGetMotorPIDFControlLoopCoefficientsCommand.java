@@ -99,6 +99,12 @@ public class LynxGetMotorPIDFControlLoopCoefficientsCommand extends LynxDekaInte
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetMotorTargetPositionCommand extends LynxDekaInterfaceCommand<
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
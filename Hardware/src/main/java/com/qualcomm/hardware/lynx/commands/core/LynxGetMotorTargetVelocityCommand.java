@@ -86,6 +86,12 @@ public class LynxGetMotorTargetVelocityCommand extends LynxDekaInterfaceCommand<
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetPWMConfigurationCommand extends LynxDekaInterfaceCommand<Lyn
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
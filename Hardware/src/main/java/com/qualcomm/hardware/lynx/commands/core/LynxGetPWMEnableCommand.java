@@ -86,6 +86,12 @@ public class LynxGetPWMEnableCommand extends LynxDekaInterfaceCommand<LynxGetPWM
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
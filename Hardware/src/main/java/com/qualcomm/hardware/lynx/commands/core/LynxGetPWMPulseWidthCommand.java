@@ -86,6 +86,12 @@ public class LynxGetPWMPulseWidthCommand extends LynxDekaInterfaceCommand<LynxGe
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetServoEnableCommand extends LynxDekaInterfaceCommand<LynxGetS
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
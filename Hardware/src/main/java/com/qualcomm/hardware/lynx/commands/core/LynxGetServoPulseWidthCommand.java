@@ -86,6 +86,12 @@ public class LynxGetServoPulseWidthCommand extends LynxDekaInterfaceCommand<Lynx
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxGetSingleDIOInputCommand extends LynxDekaInterfaceCommand<LynxG
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -83,6 +83,12 @@ public class LynxI2cConfigureQueryCommand extends LynxDekaInterfaceCommand<LynxI
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -86,6 +86,12 @@ public class LynxIsMotorAtTargetCommand extends LynxDekaInterfaceCommand<LynxIsM
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
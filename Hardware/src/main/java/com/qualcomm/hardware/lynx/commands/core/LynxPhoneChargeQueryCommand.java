@@ -73,6 +73,12 @@ public class LynxPhoneChargeQueryCommand extends LynxDekaInterfaceCommand<LynxPh
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
 
     @Override
     public byte[] toPayloadByteArray()
@@ -75,6 +75,12 @@ public class LynxReadVersionStringCommand extends LynxDekaInterfaceCommand<LynxR
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public byte[] toPayloadByteArray()
         {
@@ -75,6 +75,12 @@ public class LynxGetModuleLEDColorCommand extends LynxStandardCommand<LynxGetMod
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public int getCommandNumber()
         {
@@ -75,6 +75,12 @@ public class LynxGetModuleLEDPatternCommand extends LynxStandardCommand<LynxGetM
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public int getCommandNumber()
         {
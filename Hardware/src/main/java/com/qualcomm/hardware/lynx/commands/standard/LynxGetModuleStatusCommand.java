@@ -92,6 +92,13 @@ public class LynxGetModuleStatusCommand extends LynxStandardCommand<LynxGetModul
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        // clearing the status bits is an action in its own right
+        return !this.clearStatusAfterResponse;
+        }
+
     @Override
     public int getCommandNumber()
         {
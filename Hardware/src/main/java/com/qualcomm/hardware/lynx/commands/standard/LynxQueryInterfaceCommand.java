@@ -114,6 +114,12 @@ public class LynxQueryInterfaceCommand extends LynxStandardCommand<LynxQueryInte
         return true;
         }
 
+    @Override
+    protected boolean isIdempotent()
+        {
+        return true;
+        }
+
     @Override
     public int getCommandNumber()
         {
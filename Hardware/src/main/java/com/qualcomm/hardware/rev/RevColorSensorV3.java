@@ -43,7 +43,6 @@ import com.qualcomm.robotcore.hardware.ControlSystem;
 import com.qualcomm.robotcore.hardware.configuration.annotations.I2cDeviceType;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 
-import java.nio.ByteOrder;
 import java.util.Locale;
 
 /**
@@ -187,6 +186,6 @@ public class RevColorSensorV3 extends BroadcomColorSensorImpl implements Distanc
     public int rawOptical()
     {
         // return raw value with overflow bit masked
-        return (readUnsignedShort(Register.PS_DATA, ByteOrder.LITTLE_ENDIAN) & 0x7FF);
+        return (rawProximity() & 0x7FF);
     }
 }
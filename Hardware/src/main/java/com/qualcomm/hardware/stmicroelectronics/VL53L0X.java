@@ -33,6 +33,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.qualcomm.hardware.stmicroelectronics;
 
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
 import com.qualcomm.robotcore.hardware.DistanceSensor;
 import com.qualcomm.robotcore.hardware.I2cAddr;
 import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
@@ -40,10 +42,17 @@ import com.qualcomm.robotcore.hardware.I2cDeviceSynchDevice;
 import com.qualcomm.robotcore.hardware.I2cWaitControl;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
 import com.qualcomm.robotcore.util.TypeConversion;
 
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import static com.qualcomm.hardware.stmicroelectronics.VL53L0X.Register.DYNAMIC_SPAD_NUM_REQUESTED_REF_SPAD;
 import static com.qualcomm.hardware.stmicroelectronics.VL53L0X.Register.DYNAMIC_SPAD_REF_EN_START_OFFSET;
 import static com.qualcomm.hardware.stmicroelectronics.VL53L0X.Register.FINAL_RANGE_CONFIG_MIN_COUNT_RATE_RTN_LIMIT;
@@ -76,7 +85,7 @@ import static com.qualcomm.hardware.stmicroelectronics.VL53L0X.vcselPeriodType.V
  * @see <a href="http://www.st.com/en/imaging-and-photonics-solutions/vl53l0x.html">STMicroelectronics VL53L0X Sensor</a>
  *
  */
-public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements DistanceSensor
+public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements DistanceSensor, OpModeManagerNotifier.Notifications
 {
     //***********************************************************************************************
     // User methods.
@@ -100,7 +109,18 @@ public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements Dis
 
     @Override
     public double getDistance(DistanceUnit unit) {
-        double range = (double)this.readRangeContinuousMillimeters();
+        double range;
+        if (this.rangingService != null) {
+            // The background reader owns the sensor's interrupt: reading synchronously here
+            // would clear it, and steal the measurement the reader is waiting on.
+            Range latest = this.latestRange;
+            if (latest == null) {
+                return distanceOutOfRange;
+            }
+            range = latest.mm;
+        } else {
+            range = this.readRangeContinuousMillimeters();
+        }
 
         if (unit == DistanceUnit.CM) {
             return range / 10;
@@ -120,6 +140,92 @@ public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements Dis
         return did_timeout;
     }
 
+    /**
+     * Starts a background reader that collects each back-to-back range measurement as the
+     * sensor completes it. While the reader runs, {@link #getDistance(DistanceUnit)} returns
+     * the most recent (filtered) measurement immediately instead of waiting on the sensor, or
+     * {@link #distanceOutOfRange} until the first measurement has been collected. The reader
+     * is stopped when the opmode stops.
+     *
+     * @param budget_us the measurement timing budget, in microseconds (minimum 20000). Longer
+     *                  budgets give less noisy measurements at a lower rate.
+     * @param filter    the filter to apply to successive measurements; may be null
+     * @return whether the reader was started
+     * @see #stopContinuousRanging()
+     */
+    public boolean startContinuousRanging(long budget_us, RangeFilter filter) {
+        synchronized (rangingLock) {
+            stopContinuousRanging();
+            synchronized (this) {
+                stopContinuous();
+                boolean result = setMeasurementTimingBudget(budget_us);
+                startContinuous();
+                if (!result) {
+                    RobotLog.ww(MYTAG, "invalid timing budget: %d us", budget_us);
+                    return false;
+                }
+            }
+            if (filter != null) {
+                filter.reset();
+            }
+            latestRange = null;
+            rangingService = ThreadPool.newSingleThreadExecutor("VL53L0X ranging");
+            rangingService.execute(new RangingReader(rangingService, budget_us, filter));
+            return true;
+        }
+    }
+
+    /** Stops the background reader, if any. The sensor itself is left ranging. */
+    public void stopContinuousRanging() {
+        synchronized (rangingLock) {
+            if (rangingService != null) {
+                rangingService.shutdownNow();
+                ThreadPool.awaitTerminationOrExitApplication(rangingService, 2, TimeUnit.SECONDS, "VL53L0X ranging", "unresponsive VL53L0X ranging");
+                rangingService = null;
+                latestRange = null;
+            }
+        }
+    }
+
+    public boolean isContinuousRanging() {
+        return rangingService != null;
+    }
+
+    /**
+     * Returns the most recent measurement collected by the background reader, or null
+     * if none is yet available.
+     * @see #startContinuousRanging(long, RangeFilter)
+     */
+    public Range getLatestRange() {
+        return latestRange;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        stopContinuousRanging();
+        super.resetDeviceConfigurationForOpMode();
+    }
+
+    @Override
+    public void close() {
+        stopContinuousRanging();
+        super.close();
+    }
+
+    @Override
+    public void onOpModePreInit(OpMode opMode) {
+    }
+
+    @Override
+    public void onOpModePreStart(OpMode opMode) {
+    }
+
+    @Override
+    public void onOpModePostStop(OpMode opMode) {
+        // Don't leave the reader polling the bus underneath the next opmode
+        stopContinuousRanging();
+    }
+
     //***********************************************************************************************
     // Constant values and sensor memory register.
     //***********************************************************************************************
@@ -240,6 +346,10 @@ public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements Dis
     protected ElapsedTime ioElapsedTime;
     boolean did_timeout = false;
 
+    protected final Object rangingLock = new Object();
+    protected volatile ExecutorService rangingService = null;
+    protected volatile Range latestRange = null;
+
     //***********************************************************************************************
     // Construction and initialization.
     //***********************************************************************************************
@@ -980,6 +1090,157 @@ public class VL53L0X extends I2cDeviceSynchDevice<I2cDeviceSynch> implements Dis
         return range;
     }
 
+    //***********************************************************************************************
+    // Background ranging.
+    //***********************************************************************************************
+
+    /** A single range measurement, as published by the background reader. */
+    public static class Range {
+        /** the (filtered) range in millimeters */
+        public final int mm;
+        /** the unfiltered range in millimeters */
+        public final int mmRaw;
+        /** the System.nanoTime() at which the measurement was read */
+        public final long nanoTime;
+
+        public Range(int mm, int mmRaw, long nanoTime) {
+            this.mm = mm;
+            this.mmRaw = mmRaw;
+            this.nanoTime = nanoTime;
+        }
+
+        public double getMsAge() {
+            return (System.nanoTime() - nanoTime) / (double)ElapsedTime.MILLIS_IN_NANO;
+        }
+    }
+
+    /** Smooths successive range measurements. Filters are used by only one reader thread. */
+    public static abstract class RangeFilter {
+        public abstract int filter(int mm);
+        public abstract void reset();
+    }
+
+    /** Reports the median of the last few measurements, rejecting isolated outliers. */
+    public static class MedianFilter extends RangeFilter {
+        protected final int[] window;
+        protected final int[] sorted;
+        protected int count = 0;
+        protected int next = 0;
+
+        public MedianFilter(int size) {
+            window = new int[Math.max(1, size)];
+            sorted = new int[window.length];
+        }
+
+        @Override public int filter(int mm) {
+            window[next] = mm;
+            next = (next + 1) % window.length;
+            count = Math.min(count + 1, window.length);
+            System.arraycopy(window, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            return sorted[count / 2];
+        }
+
+        @Override public void reset() {
+            count = 0;
+            next = 0;
+        }
+    }
+
+    /** Reports an exponentially weighted moving average of the measurements. */
+    public static class ExponentialFilter extends RangeFilter {
+        protected final double alpha;
+        protected double average;
+        protected boolean primed = false;
+
+        /** @param alpha the weight given to each new measurement, in (0, 1] */
+        public ExponentialFilter(double alpha) {
+            this.alpha = Math.max(Double.MIN_VALUE, Math.min(1.0, alpha));
+        }
+
+        @Override public int filter(int mm) {
+            average = primed ? average + alpha * (mm - average) : mm;
+            primed = true;
+            return (int)Math.round(average);
+        }
+
+        @Override public void reset() {
+            primed = false;
+        }
+    }
+
+    // RESULT_INTERRUPT_STATUS through the final range, which is at RESULT_RANGE_STATUS + 10
+    protected static final int cbRangeWindow = RESULT_RANGE_STATUS.bVal + 12 - RESULT_INTERRUPT_STATUS.bVal;
+    protected static final int ibRange = RESULT_RANGE_STATUS.bVal + 10 - RESULT_INTERRUPT_STATUS.bVal;
+
+    /**
+     * Reads the interrupt status and, if a measurement is ready, the range, both in one
+     * transaction. Returns -1 if no measurement is yet ready.
+     */
+    protected synchronized int readRangeIfReady() {
+        byte[] data = deviceClient.read(RESULT_INTERRUPT_STATUS.bVal, cbRangeWindow);
+        if ((data[0] & 0x07) == 0) {
+            return -1;
+        }
+        int range = TypeConversion.unsignedShortToInt(TypeConversion.byteArrayToShort(data, ibRange, ByteOrder.BIG_ENDIAN));
+        writeReg(SYSTEM_INTERRUPT_CLEAR.bVal, 0x01);
+        return range;
+    }
+
+    /**
+     * Collects back-to-back measurements. Rather than polling continuously, the reader sleeps
+     * until the sensor ought to have completed its next measurement, then polls briefly.
+     */
+    protected class RangingReader implements Runnable {
+        protected final ExecutorService service;
+        protected final long nsBudget;
+        protected final long nsPoll = ElapsedTime.MILLIS_IN_NANO;
+        protected final RangeFilter filter;
+
+        RangingReader(ExecutorService service, long budget_us, RangeFilter filter) {
+            this.service = service;
+            this.nsBudget = budget_us * 1000;
+            this.filter = filter;
+        }
+
+        @Override public void run() {
+            try {
+                long nsNext = System.nanoTime();
+                while (!Thread.currentThread().isInterrupted()) {
+                    long nsNow = System.nanoTime();
+                    if (nsNext - nsNow > 0) {
+                        Thread.sleep((nsNext - nsNow) / ElapsedTime.MILLIS_IN_NANO, (int)((nsNext - nsNow) % ElapsedTime.MILLIS_IN_NANO));
+                    }
+
+                    int mmRaw = readRangeIfReady();
+                    if (mmRaw < 0) {
+                        nsNext = System.nanoTime() + nsPoll;
+                        continue;
+                    }
+
+                    long nanoTime = System.nanoTime();
+                    int mm = filter != null ? filter.filter(mmRaw) : mmRaw;
+                    latestRange = new Range(mm, mmRaw, nanoTime);
+
+                    // Leave a little slack so that we're not late for the next measurement
+                    nsNext = nanoTime + nsBudget - nsPoll;
+                }
+            } catch (InterruptedException|CancellationException e) {
+                // shutting down
+            } catch (RuntimeException e) {
+                // Don't leave a stale measurement behind us: retire ourselves, so that callers
+                // go back to reading the sensor synchronously. We can't take rangingLock here,
+                // as stopContinuousRanging() may hold it while awaiting our termination.
+                RobotLog.ee(MYTAG, e, "background ranging failed; reverting to synchronous reads");
+                if (rangingService == service) {
+                    rangingService = null;
+                    latestRange = null;
+                }
+                service.shutdown();
+            }
+        }
+    }
+
     //***********************************************************************************************
     // Useful methods to read/write from device.
     //***********************************************************************************************
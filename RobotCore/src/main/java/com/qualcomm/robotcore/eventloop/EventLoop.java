@@ -37,6 +37,7 @@ import com.qualcomm.robotcore.exception.RobotCoreException;
 import com.qualcomm.robotcore.hardware.usb.RobotUsbModule;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.util.SerialNumber;
 
 import org.firstinspires.ftc.robotcore.internal.network.CallbackResult;
@@ -85,6 +86,12 @@ public interface EventLoop {
    */
   void refreshUserTelemetry(TelemetryMessage telemetry, double sInterval);
 
+  /**
+   * Sends a batch of the user's telemetry samples to the driver station, then clears the batch.
+   * @param samples the samples to send
+   */
+  void sendUserTelemetrySamples(TelemetrySamplesMessage samples);
+
   /**
    * The value to pass to {@link #refreshUserTelemetry(TelemetryMessage, double)} as the time interval
    * parameter in order to cause a system default interval to be used.
@@ -43,7 +43,9 @@ import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.Heartbeat;
 import com.qualcomm.robotcore.robocol.PeerDiscovery;
 import com.qualcomm.robotcore.robocol.RobocolDatagram;
+import com.qualcomm.robotcore.robocol.TelemetryDeltaMessage;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.robot.RobotState;
 import com.qualcomm.robotcore.util.*;
 import com.qualcomm.robotcore.wifi.NetworkConnection;
@@ -128,6 +130,7 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
   private final @NonNull EventLoopManagerClient eventLoopManagerClient;
   private               AppUtil               appUtil = AppUtil.getInstance();
   private               NetworkConnectionHandler networkConnectionHandler = NetworkConnectionHandler.getInstance();
+  private volatile      TelemetryDeltaMessage.Encoder telemetryDeltaEncoder = null;  // null if we send full telemetry
 
   //------------------------------------------------------------------------------------------------
   // Construction
@@ -528,17 +531,47 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
    * @param telemetry telemetry data
    */
   public void sendTelemetryData(TelemetryMessage telemetry) {
+    TelemetryDeltaMessage.Encoder encoder = this.telemetryDeltaEncoder;
     try {
       telemetry.setRobotState(this.state);  // conveying state here helps global errors always be portrayed as in EMERGENCY_STOP state rather than waiting until next heartbeat
-      networkConnectionHandler.sendDatagram(new RobocolDatagram(telemetry.toByteArrayForTransmission()));
+      if (encoder != null) {
+        networkConnectionHandler.sendDatagram(new RobocolDatagram(encoder.encode(telemetry).toByteArrayForTransmission()));
+      } else {
+        networkConnectionHandler.sendDatagram(new RobocolDatagram(telemetry.toByteArrayForTransmission()));
+      }
     } catch (RobotCoreException e) {
       RobotLog.ww(TAG, e, "Failed to send telemetry data");
+      if (encoder != null) encoder.reset(); // we don't know what the peer last saw
     }
 
     // clear the stale telemetry data
     telemetry.clearData();
   }
 
+  public void sendTelemetrySamples(TelemetrySamplesMessage samples) {
+    try {
+      networkConnectionHandler.sendDatagram(new RobocolDatagram(samples));
+    } catch (RobotCoreException e) {
+      RobotLog.ww(TAG, e, "Failed to send telemetry samples");
+    }
+
+    // clear the samples we've sent (or failed to)
+    samples.clearSamples();
+  }
+
+  /**
+   * Enables or disables sending telemetry as {@link TelemetryDeltaMessage}s, which carry only
+   * the entries that changed since the previous transmission. Off by default, as the peer must
+   * understand that message type.
+   */
+  public void setTelemetryDeltaEncoding(boolean enabled) {
+    this.telemetryDeltaEncoder = enabled ? new TelemetryDeltaMessage.Encoder() : null;
+  }
+
+  public boolean isTelemetryDeltaEncoding() {
+    return this.telemetryDeltaEncoder != null;
+  }
+
   private void startEventLoop() throws RobotCoreException {
     // call the init method
     try {
@@ -746,26 +779,39 @@ public class EventLoopManager implements RecvLoopRunnable.RecvLoopCallback, Netw
 
   @Override
   public CallbackResult commandEvent(Command command) throws RobotCoreException {
-  // called on RecvRunnable.run() thread
+  // called on a RecvLoopRunnable.CommandProcessor thread, of which there is one per lane
 
     CallbackResult result = CallbackResult.NOT_HANDLED;
 
-    // check if it's in the cache to avoid duplicate executions
-    for (Command c : commandRecvCache) {
-      if (c != null && c.equals(command)) {
-        // this command is in the cache, which means we've already handled it
-        // no need to continue, just return now
-        return CallbackResult.HANDLED;
+    synchronized (commandRecvCache) {
+      // check if it's in the cache to avoid duplicate executions
+      for (Command c : commandRecvCache) {
+        if (c != null && c.equals(command)) {
+          // this command is in the cache, which means we've already handled it
+          // no need to continue, just return now
+          return CallbackResult.HANDLED;
+        }
       }
-    }
 
-    // cache the command
-    commandRecvCache[(commandRecvCachePosition++) % commandRecvCache.length] = command;
+      // cache the command
+      commandRecvCache[(commandRecvCachePosition++) % commandRecvCache.length] = command;
+    }
 
     // process the command. We synchronize on the eventLoopLock so that we won't try to
-    // start or stop the event loop while it's busy processing a command
+    // start or stop the event loop while it's busy processing a command. Commands that
+    // don't touch the running event loop's state (file and configuration reads and writes,
+    // reports, frames) can take a long while; we don't let them hold the lock, lest they
+    // delay opmode control in another lane.
     try {
-      synchronized (eventLoopLock) {
+      if (RecvLoopRunnable.needsEventLoopLock(command.getName())) {
+        synchronized (eventLoopLock) {
+          result = eventLoop.processCommand(command);
+        }
+      } else {
+        EventLoop eventLoop;
+        synchronized (eventLoopLock) {
+          eventLoop = this.eventLoop;
+        }
         result = eventLoop.processCommand(command);
       }
     } catch (Exception e) {
@@ -34,6 +34,7 @@ package com.qualcomm.robotcore.eventloop.opmode;
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 
 import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.internal.opmode.TelemetryImpl;
@@ -227,4 +228,14 @@ public abstract class OpMode {
     this.internalOpModeServices.refreshUserTelemetry(telemetry, 0);
   }
 
+  /**
+   * This is an internal SDK method, not intended for use by user opmodes.
+   *
+   * @param samples the telemetry samples to transmit
+   * @see Telemetry#addChannel(String, Telemetry.SampleType)
+   */
+  public final void internalSendTelemetrySamplesNow(TelemetrySamplesMessage samples) {
+    this.internalOpModeServices.sendUserTelemetrySamples(samples);
+  }
+
 }
@@ -806,9 +806,10 @@ public final class I2cDeviceSynchImpl extends I2cDeviceSynchReadHistoryImpl impl
 
                             synchronized (historyQueueLock)
                                 {
-                                if (getHistoryQueueCapacity() > 0)
+                                if (getHistoryQueueCapacity() > 0 || getHistoryRing() != null)
                                     {
-                                    // Remember what was actually read
+                                    // Remember what was actually read. The ring is fed independently of the queue,
+                                    // so it records even when no queue capacity has been set.
                                     TimestampedI2cData readData = new TimestampedI2cData();
                                     int ibReadFirst     = /* this.readWindowActuallyRead.getRegisterFirst() - this.readWindowActuallyRead.getRegisterFirst() */ + dibCacheOverhead;
                                     readData.data       = Arrays.copyOfRange(this.readCache, ibReadFirst, ibReadFirst + this.readWindowActuallyRead.getRegisterCount());
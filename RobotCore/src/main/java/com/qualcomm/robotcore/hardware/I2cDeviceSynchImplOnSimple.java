@@ -34,6 +34,7 @@ package com.qualcomm.robotcore.hardware;
 
 import android.support.annotation.Nullable;
 
+import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.ThreadPool;
 
 import java.util.Arrays;
@@ -46,7 +47,7 @@ import java.util.concurrent.TimeUnit;
  * readwindow functionality.
  */
 @SuppressWarnings("WeakerAccess")
-public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl implements I2cDeviceSynch
+public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl implements I2cDeviceSynch, I2cReadWindowPrefetcher.Client
     {
     //----------------------------------------------------------------------------------------------
     // State
@@ -70,6 +71,10 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
     protected HeartbeatAction       heartbeatAction;            // the action to take when a heartbeat is needed. May be null.
     protected ScheduledExecutorService heartbeatExecutor;       // used to schedule heartbeats when we need to read from the outside
 
+    protected I2cReadWindowPrefetcher prefetcher;               // may be null
+    protected TimestampedData       prefetchedData;             // the contents of prefetchedWindow, if prefetched, else null
+    protected ReadWindow            prefetchedWindow;
+
     protected final Object          engagementLock = new Object();
     protected final Object          concurrentClientLock = new Object(); // the lock we use to serialize against concurrent clients of us.
 
@@ -87,6 +92,9 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
         this.heartbeatAction        = null;
         this.heartbeatExecutor      = null;
         this.readWindow             = null;
+        this.prefetcher             = null;
+        this.prefetchedData         = null;
+        this.prefetchedWindow       = null;
         this.cregReadLast           = 0;
         this.rgbWriteLast           = null;
         this.isEngaged              = false;
@@ -309,6 +317,7 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
         synchronized (concurrentClientLock)
             {
             this.readWindow = window.readableCopy();
+            this.prefetchedData = null;
             }
         }
 
@@ -340,6 +349,73 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
         return readTimeStamped(ireg, creg);
         }
 
+    //----------------------------------------------------------------------------------------------
+    // Prefetching
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Registers us with the indicated prefetcher, which will (when enabled) periodically read
+     * our read window in the background, allowing reads within that window to be answered
+     * without waiting on the bus.
+     */
+    public void setPrefetcher(@Nullable I2cReadWindowPrefetcher prefetcher, int bus)
+        {
+        synchronized (concurrentClientLock)
+            {
+            if (this.prefetcher != null)
+                {
+                this.prefetcher.unregister(this);
+                }
+            this.prefetcher = prefetcher;
+            this.prefetchedData = null;
+            if (prefetcher != null)
+                {
+                prefetcher.register(bus, this);
+                }
+            }
+        }
+
+    @Override public void prefetch()
+        {
+        synchronized (concurrentClientLock)
+            {
+            if (isPrefetchable(this.readWindow) && this.isOpenForReading())
+                {
+                TimestampedData windowedData = this.i2cDeviceSynchSimple.readTimeStamped(this.readWindow.getRegisterFirst(), this.readWindow.getRegisterCount());
+                this.prefetchedData   = windowedData;
+                this.prefetchedWindow = this.readWindow;
+
+                TimestampedI2cData readData = new TimestampedI2cData();
+                readData.data     = windowedData.data;
+                readData.nanoTime = windowedData.nanoTime;
+                readData.register = this.readWindow.getRegisterFirst();
+                readData.i2cAddr  = this.getI2cAddress();
+                addToHistoryQueue(readData);
+                }
+            }
+        }
+
+    /** Only windows that already tolerate somewhat old data are prefetched; see {@link I2cReadWindowPrefetcher} */
+    protected static boolean isPrefetchable(@Nullable ReadWindow window)
+        {
+        return window != null && (window.getReadMode() == ReadMode.REPEAT || window.getReadMode() == ReadMode.BALANCED);
+        }
+
+    /** Returns prefetched data for our read window if it's still fresh enough to use, else null. Call with concurrentClientLock held. */
+    protected @Nullable TimestampedData getPrefetchedData()
+        {
+        I2cReadWindowPrefetcher prefetcher = this.prefetcher;
+        if (prefetcher != null && prefetcher.isEnabled() && isPrefetchable(this.readWindow) && this.prefetchedData != null && this.prefetchedWindow == this.readWindow)
+            {
+            long nsAge = System.nanoTime() - this.prefetchedData.nanoTime;
+            if (nsAge <= prefetcher.getMsFreshness() * ElapsedTime.MILLIS_IN_NANO)
+                {
+                return this.prefetchedData;
+                }
+            }
+        return null;
+        }
+
     //----------------------------------------------------------------------------------------------
     // HardwareDevice
     //----------------------------------------------------------------------------------------------
@@ -373,6 +449,7 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
         {
         this.i2cDeviceSynchSimple.resetDeviceConfigurationForOpMode();
         this.readWindow = null;
+        this.prefetchedData = null;
         // TODO: more to come
         }
 
@@ -380,6 +457,7 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
     public void close()
         {
         this.isClosing = true;
+        setPrefetcher(null, 0);
         disengage();
         if (this.isSimpleOwned)
             {
@@ -428,6 +506,21 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
                 : i2cDeviceSynchSimpleHistory.getHistoryQueueCapacity();
         }
 
+    @Override public void setHistoryRing(@Nullable I2cReadHistoryRing ring)
+        {
+        if (i2cDeviceSynchSimpleHistory==null)
+            super.setHistoryRing(ring);
+        else
+            i2cDeviceSynchSimpleHistory.setHistoryRing(ring);
+        }
+
+    @Override @Nullable public I2cReadHistoryRing getHistoryRing()
+        {
+        return i2cDeviceSynchSimpleHistory==null
+                ? super.getHistoryRing()
+                : i2cDeviceSynchSimpleHistory.getHistoryRing();
+        }
+
     @Override public void addToHistoryQueue(TimestampedI2cData data)
         {
         if (i2cDeviceSynchSimpleHistory==null)
@@ -506,9 +599,23 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
 
             TimestampedI2cData readData = null;
 
-            if (this.readWindow != null && this.readWindow.contains(ireg, creg))
+            TimestampedData prefetchedData = this.readWindow != null && this.readWindow.contains(ireg, creg) ? getPrefetchedData() : null;
+            if (prefetchedData != null)
+                {
+                // Already in the history queue, so don't add again
+                int ibFirst     = ireg - this.readWindow.getRegisterFirst();
+                result.data     = Arrays.copyOfRange(prefetchedData.data, ibFirst, ibFirst + creg);
+                result.nanoTime = prefetchedData.nanoTime;
+                return result;
+                }
+            else if (this.readWindow != null && this.readWindow.contains(ireg, creg))
                 {
                 TimestampedData windowedData = this.i2cDeviceSynchSimple.readTimeStamped(this.readWindow.getRegisterFirst(), this.readWindow.getRegisterCount());
+                if (isPrefetchable(this.readWindow))
+                    {
+                    this.prefetchedData   = windowedData;    // as good as prefetched
+                    this.prefetchedWindow = this.readWindow;
+                    }
 
                 int ibFirst     = ireg - this.readWindow.getRegisterFirst();
                 result.data     = Arrays.copyOfRange(windowedData.data, ibFirst, ibFirst + creg);
@@ -562,6 +669,7 @@ public class I2cDeviceSynchImplOnSimple extends I2cDeviceSynchReadHistoryImpl im
 
             this.iregWriteLast = ireg;
             this.rgbWriteLast = Arrays.copyOf(data, data.length);
+            this.prefetchedData = null;     // the write may well change what we'd read
             this.i2cDeviceSynchSimple.write(ireg, data, waitControl);
             }
         }
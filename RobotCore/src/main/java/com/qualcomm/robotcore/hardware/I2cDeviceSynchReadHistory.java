@@ -32,6 +32,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package com.qualcomm.robotcore.hardware;
 
+import android.support.annotation.Nullable;
+
 import java.util.concurrent.BlockingQueue;
 
 /**
@@ -88,4 +90,21 @@ public interface I2cDeviceSynchReadHistory
      * @see #setHistoryQueueCapacity(int)
      */
     BlockingQueue<TimestampedI2cData> getHistoryQueue();
+
+    /**
+     * (Advanced) Sets a ring into which the data of reads is also recorded, as an allocation-free
+     * alternative to the history queue. Unlike the history queue, the ring is supplied by the
+     * caller, and so may be sized as needed; null (the initial state) stops recording.
+     *
+     * @param ring the ring in which to record reads, or null
+     * @see I2cReadHistoryRing
+     */
+    void setHistoryRing(@Nullable I2cReadHistoryRing ring);
+
+    /**
+     * Returns the ring into which reads are being recorded, if any.
+     * @return the ring into which reads are being recorded, or null
+     * @see #setHistoryRing(I2cReadHistoryRing)
+     */
+    @Nullable I2cReadHistoryRing getHistoryRing();
     }
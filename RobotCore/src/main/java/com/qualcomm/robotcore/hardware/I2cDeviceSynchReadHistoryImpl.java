@@ -32,6 +32,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package com.qualcomm.robotcore.hardware;
 
+import android.support.annotation.Nullable;
+
 import org.firstinspires.ftc.robotcore.internal.collections.EvictingBlockingQueue;
 
 import java.util.concurrent.ArrayBlockingQueue;
@@ -51,6 +53,7 @@ public class I2cDeviceSynchReadHistoryImpl implements I2cDeviceSynchReadHistory
     protected final Object                       historyQueueLock = new Object();
     protected BlockingQueue<TimestampedI2cData>  historyQueue;
     protected int                                historyQueueCapacity;
+    protected volatile I2cReadHistoryRing        historyRing = null;
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -97,12 +100,27 @@ public class I2cDeviceSynchReadHistoryImpl implements I2cDeviceSynchReadHistory
             }
         }
 
+    @Override public void setHistoryRing(@Nullable I2cReadHistoryRing ring)
+        {
+        this.historyRing = ring;
+        }
+
+    @Override @Nullable public I2cReadHistoryRing getHistoryRing()
+        {
+        return this.historyRing;
+        }
+
     //----------------------------------------------------------------------------------------------
     // Queue maintenance
     //----------------------------------------------------------------------------------------------
 
     public void addToHistoryQueue(TimestampedI2cData data)
         {
+        I2cReadHistoryRing ring = this.historyRing;
+        if (ring != null)
+            {
+            ring.add(data);
+            }
         synchronized (historyQueueLock)
             {
             if (historyQueueCapacity > 0)
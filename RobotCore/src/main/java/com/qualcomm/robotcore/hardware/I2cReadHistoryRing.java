@@ -0,0 +1,269 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.robotcore.hardware;
+
+/**
+ * {@link I2cReadHistoryRing} is an allocation-free alternative to the history queue of
+ * {@link I2cDeviceSynchReadHistory}: the bytes of each read are copied into one preallocated
+ * byte ring, with the timestamp, register, and address of each read held in parallel primitive
+ * arrays. Once full, the oldest reads are discarded to make room. Recording a read thus
+ * generates no garbage, which allows (say) the last several seconds of a 100Hz sensor's
+ * traffic to be retained for later analysis.
+ *
+ * Reads are retrieved through a {@link Cursor}, which accesses the ring in place.
+ *
+ * @see I2cDeviceSynchReadHistory#setHistoryRing(I2cReadHistoryRing)
+ */
+@SuppressWarnings("WeakerAccess")
+public class I2cReadHistoryRing
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final Object  lock = new Object();
+    protected final byte[]  bytes;
+    protected final long[]  nanoTimes;
+    protected final long[]  offsets;            // absolute (ie: unwrapped) offset of each read's bytes
+    protected final int[]   lengths;
+    protected final int[]   registers;
+    protected final int[]   i2cAddrs;           // 7 bit
+    protected long          sequenceFirst;      // sequence number of the oldest read retained
+    protected long          sequenceNext;       // sequence number the next read will have
+    protected long          offsetNext;         // absolute offset at which the next read's bytes will go
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param readCapacity  the maximum number of reads retained
+     * @param byteCapacity  the maximum number of bytes of data retained, across all reads
+     */
+    public I2cReadHistoryRing(int readCapacity, int byteCapacity)
+        {
+        if (readCapacity <= 0 || byteCapacity <= 0) throw new IllegalArgumentException("capacities must be positive");
+        this.bytes     = new byte[byteCapacity];
+        this.nanoTimes = new long[readCapacity];
+        this.offsets   = new long[readCapacity];
+        this.lengths   = new int[readCapacity];
+        this.registers = new int[readCapacity];
+        this.i2cAddrs  = new int[readCapacity];
+        clear();
+        }
+
+    public void clear()
+        {
+        synchronized (lock)
+            {
+            sequenceFirst = sequenceNext = 0;
+            offsetNext = 0;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public int readCapacity()
+        {
+        return nanoTimes.length;
+        }
+
+    public int byteCapacity()
+        {
+        return bytes.length;
+        }
+
+    /** Returns the number of reads currently retained */
+    public int size()
+        {
+        synchronized (lock)
+            {
+            return (int)(sequenceNext - sequenceFirst);
+            }
+        }
+
+    /** Returns the total number of reads ever added (or added since {@link #clear()}) */
+    public long getTotalCount()
+        {
+        synchronized (lock)
+            {
+            return sequenceNext;
+            }
+        }
+
+    /** Returns a cursor positioned before the oldest read currently retained */
+    public Cursor newCursor()
+        {
+        Cursor result = new Cursor();
+        synchronized (lock)
+            {
+            result.sequence = sequenceFirst - 1;
+            }
+        return result;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Writing
+    //----------------------------------------------------------------------------------------------
+
+    public void add(TimestampedI2cData data)
+        {
+        add(data.nanoTime, data.i2cAddr == null ? 0 : data.i2cAddr.get7Bit(), data.register, data.data, 0, data.data.length);
+        }
+
+    public void add(long nanoTime, int i2cAddr7Bit, int register, byte[] data, int offset, int length)
+        {
+        synchronized (lock)
+            {
+            // Reads that can't fit at all are truncated
+            length = Math.min(length, bytes.length);
+
+            // Evict until there's room for another read and its bytes
+            while (sequenceNext - sequenceFirst >= nanoTimes.length
+                    || (sequenceNext > sequenceFirst && offsetNext + length - offsets[index(sequenceFirst)] > bytes.length))
+                {
+                sequenceFirst++;
+                }
+
+            int index = index(sequenceNext);
+            nanoTimes[index] = nanoTime;
+            offsets[index]   = offsetNext;
+            lengths[index]   = length;
+            registers[index] = register;
+            i2cAddrs[index]  = i2cAddr7Bit;
+
+            // Copy the data in, in (at most) two pieces
+            int ib    = (int)(offsetNext % bytes.length);
+            int first = Math.min(length, bytes.length - ib);
+            System.arraycopy(data, offset, bytes, ib, first);
+            System.arraycopy(data, offset + first, bytes, 0, length - first);
+
+            offsetNext += length;
+            sequenceNext++;
+            }
+        }
+
+    protected int index(long sequence)
+        {
+        return (int)(sequence % nanoTimes.length);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Reading
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * A {@link Cursor} iterates over the reads in a ring, oldest first, accessing them in place.
+     * If the ring overtakes a cursor, the cursor skips forward to the oldest read remaining, and
+     * counts the reads it missed. Cursors are reusable, but are not themselves thread safe.
+     */
+    public class Cursor
+        {
+        protected long sequence;
+        protected long missedCount = 0;
+
+        /** Advances to the next read, returning false (and not advancing) if there isn't one */
+        public boolean next()
+            {
+            synchronized (lock)
+                {
+                if (sequence + 1 >= sequenceNext)
+                    {
+                    return false;
+                    }
+                sequence++;
+                if (sequence < sequenceFirst)
+                    {
+                    missedCount += sequenceFirst - sequence;
+                    sequence = sequenceFirst;
+                    }
+                return true;
+                }
+            }
+
+        /** Returns the number of reads discarded from the ring before this cursor reached them */
+        public long getMissedCount()
+            {
+            return missedCount;
+            }
+
+        /** Returns whether the current read is still retained in the ring. If not, the other accessors throw. */
+        public boolean isValid()
+            {
+            synchronized (lock)
+                {
+                return sequence >= sequenceFirst && sequence < sequenceNext;
+                }
+            }
+
+        public long getNanoTime()   { synchronized (lock) { return nanoTimes[checkedIndex()]; } }
+        public int getRegister()    { synchronized (lock) { return registers[checkedIndex()]; } }
+        public int getI2cAddr7Bit() { synchronized (lock) { return i2cAddrs[checkedIndex()]; } }
+        public int length()         { synchronized (lock) { return lengths[checkedIndex()]; } }
+
+        /** Returns the indicated byte of the data of the current read */
+        public byte get(int ib)
+            {
+            synchronized (lock)
+                {
+                int index = checkedIndex();
+                if (ib < 0 || ib >= lengths[index]) throw new IndexOutOfBoundsException("get(" + ib + ")");
+                return bytes[(int)((offsets[index] + ib) % bytes.length)];
+                }
+            }
+
+        /** Copies the data of the current read into the indicated array, returning its length */
+        public int copyTo(byte[] dest, int destOffset)
+            {
+            synchronized (lock)
+                {
+                int index  = checkedIndex();
+                int length = lengths[index];
+                int ib     = (int)(offsets[index] % bytes.length);
+                int first  = Math.min(length, bytes.length - ib);
+                System.arraycopy(bytes, ib, dest, destOffset, first);
+                System.arraycopy(bytes, 0, dest, destOffset + first, length - first);
+                return length;
+                }
+            }
+
+        /** Call with lock held */
+        protected int checkedIndex()
+            {
+            if (sequence < sequenceFirst || sequence >= sequenceNext) throw new IllegalStateException("read no longer retained");
+            return index(sequence);
+            }
+        }
+    }
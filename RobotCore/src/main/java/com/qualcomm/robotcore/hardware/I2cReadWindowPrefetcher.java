@@ -0,0 +1,231 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.robotcore.hardware;
+
+import com.qualcomm.robotcore.util.RobotLog;
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link I2cReadWindowPrefetcher} proactively reads the {@link I2cDeviceSynch.ReadWindow}s of
+ * all the I2C devices on one controller (eg: a Lynx module), so that a subsequent read() of a
+ * device can usually be served from data fetched within the last cycle instead of waiting on
+ * the bus. Each bus gets its own lane, which round-robins through the devices on that bus. The
+ * lanes share a single scheduler thread: controllers serialize their I2C transactions anyway (the
+ * Lynx module holds one I2C lock for all its buses), so more threads would only contend for it.
+ *
+ * Only windows whose read mode is {@link I2cDeviceSynch.ReadMode#REPEAT REPEAT} or
+ * {@link I2cDeviceSynch.ReadMode#BALANCED BALANCED} are prefetched; those modes already
+ * permit data that is slightly old to be returned. Prefetching is off until enabled.
+ */
+@SuppressWarnings("WeakerAccess")
+public class I2cReadWindowPrefetcher
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    public interface Client
+        {
+        /** Reads the client's current read window, if it wants it prefetched */
+        void prefetch();
+        }
+
+    protected class Lane implements Runnable
+        {
+        protected final int                bus;
+        protected final List<Client>       clients = new CopyOnWriteArrayList<Client>();
+        protected ScheduledFuture<?>       future = null;
+
+        Lane(int bus)
+            {
+            this.bus = bus;
+            }
+
+        @Override public void run()
+            {
+            for (Client client : clients)
+                {
+                if (Thread.currentThread().isInterrupted()) return;
+                try {
+                    client.prefetch();
+                    }
+                catch (RuntimeException e)
+                    {
+                    // A periodic task that throws is never run again
+                    RobotLog.ee(TAG, e, "exception prefetching on bus %d", bus);
+                    }
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String TAG = "I2cPrefetch";
+    public static final int msCycleDefault = 10;
+
+    protected final String              name;
+    protected final Object              lock = new Object();
+    protected final Map<Integer, Lane>  lanes = new ConcurrentHashMap<Integer, Lane>();
+    protected ScheduledExecutorService  executor = null;
+    protected volatile boolean          enabled = false;
+    protected volatile int              msCycle = msCycleDefault;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public I2cReadWindowPrefetcher(String name)
+        {
+        this.name = name;
+        }
+
+    public void close()
+        {
+        setEnabled(false);
+        lanes.clear();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public boolean isEnabled()
+        {
+        return enabled;
+        }
+
+    /** Starts or stops prefetching. When stopped, clients must not serve prefetched data. */
+    public void setEnabled(boolean enabled)
+        {
+        synchronized (lock)
+            {
+            if (this.enabled != enabled)
+                {
+                this.enabled = enabled;
+                if (enabled)
+                    {
+                    executor = ThreadPool.newScheduledExecutor(1, "i2c prefetch " + name);
+                    for (Lane lane : lanes.values())
+                        {
+                        startLane(lane);
+                        }
+                    }
+                else
+                    {
+                    for (Lane lane : lanes.values())
+                        {
+                        lane.future = null;
+                        }
+                    executor.shutdownNow();
+                    try {
+                        ThreadPool.awaitTermination(executor, 2, TimeUnit.SECONDS, "i2c prefetch");
+                        }
+                    catch (InterruptedException e)
+                        {
+                        Thread.currentThread().interrupt();
+                        }
+                    executor = null;
+                    }
+                }
+            }
+        }
+
+    public int getMsCycle()
+        {
+        return msCycle;
+        }
+
+    /** Sets the interval between the starts of successive prefetch cycles on each bus. Takes effect when next enabled. */
+    public void setMsCycle(int msCycle)
+        {
+        this.msCycle = Math.max(1, msCycle);
+        }
+
+    /**
+     * Returns the maximum age, in milliseconds, of prefetched data that may be served in lieu of
+     * an actual read: one full cycle, plus allowance for the cycle itself being late.
+     */
+    public int getMsFreshness()
+        {
+        return 2 * msCycle;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Registration
+    //----------------------------------------------------------------------------------------------
+
+    public void register(int bus, Client client)
+        {
+        synchronized (lock)
+            {
+            Lane lane = lanes.get(bus);
+            if (lane == null)
+                {
+                lane = new Lane(bus);
+                lanes.put(bus, lane);
+                if (enabled)
+                    {
+                    startLane(lane);
+                    }
+                }
+            if (!lane.clients.contains(client))
+                {
+                lane.clients.add(client);
+                }
+            }
+        }
+
+    public void unregister(Client client)
+        {
+        for (Lane lane : lanes.values())
+            {
+            lane.clients.remove(client);
+            }
+        }
+
+    /** Call with lock held */
+    protected void startLane(Lane lane)
+        {
+        lane.future = executor.scheduleAtFixedRate(lane, 0, msCycle, TimeUnit.MILLISECONDS);
+        }
+    }
@@ -163,6 +163,37 @@ public class RobotUsbDeviceFtdi extends RobotUsbDeviceImplBase implements RobotU
     }
   }
 
+  /**
+   * Reads one length-prefixed frame, examining its framing bytes and length in place in the
+   * driver's read buffer rather than first reading them out.
+   * @param framing   the bytes with which every frame begins
+   * @param ibLength  the offset within the frame of its total length, an unsigned little endian short
+   * @param data      byte array into which to read the frame, starting at the beginning
+   * @return the length of the frame read, 0 if the timeout was hit, or {@link FtDevice#RC_FRAMING_ERROR}
+   *         if the data at hand isn't the start of a frame that fits in data (nothing is then consumed)
+   */
+  public int readFrame(byte[] framing, int ibLength, byte[] data, long msTimeout, @Nullable TimeWindow timeWindow) throws RobotUsbException, InterruptedException {
+    try {
+      int cbRead = device.readFrame(framing, ibLength, data, msTimeout, timeWindow);
+      if (cbRead > 0) {
+        if (DEBUG) dumpBytesReceived(data, 0, cbRead);
+        return cbRead;
+      }
+      switch (cbRead) {
+        case 0:
+        case FtDevice.RC_FRAMING_ERROR:
+          return cbRead;
+        case FtDevice.RC_DEVICE_CLOSED:
+          RobotUsbException deviceClosedReason = device.getDeviceClosedReason();
+          throw deviceClosedReason != null ? deviceClosedReason : new RobotUsbDeviceClosedException("error: closed: FT_Device.readFrame()==RC_DEVICE_CLOSED");
+        default:
+          throw new RobotUsbUnspecifiedException("error: FT_Device.readFrame()=%d", cbRead);
+      }
+    } catch (RuntimeException e) {
+      throw RobotUsbFTDIException.createChained(e, "runtime exception during readFrame() on %s", serialNumber);
+    }
+  }
+
   @Override public boolean mightBeAtUsbPacketStart() {
     return device.mightBeAtUsbPacketStart();
   }
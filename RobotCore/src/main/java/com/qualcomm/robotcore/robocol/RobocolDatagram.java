@@ -6,6 +6,7 @@ import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * RobocolDatagram
@@ -26,8 +27,17 @@ public class RobocolDatagram {
    /** If non-null, then this buffer should be salvaged on finalization */
    private byte[]         receiveBuffer = null;
 
-   /** the place we put old receive buffers */
-   static Queue<byte[]>   receiveBuffers = new ConcurrentLinkedQueue<byte[]>();
+   /** the packet, wrapping receiveBuffer, that we reuse for each receive */
+   private DatagramPacket receivePacket = null;
+
+   /** whether we're currently sitting in the pool; guards against double closes */
+   private boolean        isPooled = false;
+
+   /** the place we put old receive datagrams, together with their buffers and packets */
+   static Queue<RobocolDatagram> receiveDatagrams = new ConcurrentLinkedQueue<RobocolDatagram>();
+
+   /** the number of receive datagrams we've had to allocate, as opposed to reuse */
+   static AtomicLong      receiveAllocationCount = new AtomicLong(0);
 
    //-----------------------------------------------------------------------------------------------
    // Construction
@@ -52,24 +62,34 @@ public class RobocolDatagram {
    /**
     * Returns a RobocolDatagram suitable for use in socket receives. We pay particular attention
     * here to avoiding allocating too many buffers, fearing an impact on the GC, as the buffers
-    * are relatively large-ish.
+    * are relatively large-ish. Indeed, in steady state, we allocate nothing at all: datagrams
+    * given back to us in {@link #close()} are reused, buffer, packet, and all.
     *
-    * @return a new datagram suitable for socket receiving
+    * @return a datagram suitable for socket receiving
     */
    public static RobocolDatagram forReceive(int receiveBufferSize) {
-      byte[] buffer = receiveBuffers.poll();
-      if (buffer == null || buffer.length != receiveBufferSize) {
-         buffer = new byte[receiveBufferSize];
+      RobocolDatagram result = receiveDatagrams.poll();
+      if (result == null || result.receiveBuffer.length != receiveBufferSize) {
+         byte[] buffer = new byte[receiveBufferSize];
+         result = new RobocolDatagram();
+         result.receiveBuffer = buffer;
+         result.receivePacket = new DatagramPacket(buffer, buffer.length);
+         receiveAllocationCount.incrementAndGet();
+      } else {
+         // The last user may have retargeted the packet (see setData())
+         result.receivePacket.setData(result.receiveBuffer, 0, result.receiveBuffer.length);
+         result.receivePacket.setAddress(null);
       }
-      //
-      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-      //
-      RobocolDatagram result = new RobocolDatagram();
-      result.packet        = packet;
-      result.receiveBuffer = buffer;
+      result.isPooled = false;
+      result.packet   = result.receivePacket;
       return result;
    }
 
+   /** Returns the number of receive datagrams that have had to be allocated rather than reused */
+   public static long getReceiveAllocationCount() {
+      return receiveAllocationCount.get();
+   }
+
    protected RobocolDatagram() {
       this.packet = null;
    }
@@ -78,13 +98,22 @@ public class RobocolDatagram {
    // Teardown
    //-----------------------------------------------------------------------------------------------
 
-   /** Clients are done with this message. If it has a socket receive buffer, then scavenge that. */
+   /**
+    * Clients are done with this message. If it is a socket receive datagram, then scavenge it
+    * for reuse; it (and any array obtained from {@link #getData()}) must not be used further.
+    */
    public void close() {
-      if (this.receiveBuffer != null) {
-         receiveBuffers.add(this.receiveBuffer);
-         this.receiveBuffer = null;
+      if (this.receivePacket != null) {
+         synchronized (this) {
+            if (!this.isPooled) {
+               this.isPooled = true;
+               this.packet = null;
+               receiveDatagrams.add(this);
+            }
+         }
+      } else {
+         this.packet = null;
       }
-      this.packet = null;
    }
 
    //-----------------------------------------------------------------------------------------------
@@ -123,8 +152,25 @@ public class RobocolDatagram {
       return packet.getData();
    }
 
+   /**
+    * Sets the data carried by this datagram. The existing packet, if any, is retargeted rather
+    * than reallocated; its address is retained, so that a received datagram may be used to reply.
+    */
    public void setData(byte[] data) {
-      packet = new DatagramPacket(data, data.length);
+      if (packet != null) {
+         packet.setData(data);
+      } else {
+         packet = new DatagramPacket(data, data.length);
+      }
+   }
+
+   /**
+    * Reuses this datagram to carry the indicated message to the peer to which the socket is
+    * connected. Senders of frequent messages can use this to avoid wrapping each one anew.
+    */
+   public void setData(RobocolParsable message) throws RobotCoreException {
+      setData(message.toByteArrayForTransmission());
+      packet.setAddress(null);
    }
 
    public InetAddress getAddress() {
@@ -131,7 +131,10 @@ public class RobocolDatagramSocket {
       try {
         // We have seen rare situations where recv() is called before the socket is bound.
         // Thus guards against same.
-        if (socket == null) return null;
+        if (socket == null) {
+          result.close();
+          return null;
+        }
 
         // Block until a packet is received or a timeout occurs
         if (VERBOSE_DEBUG) RobotLog.vv(TAG, "calling socket.receive()");
@@ -144,10 +147,12 @@ public class RobocolDatagramSocket {
           recvErrorReported = !DEBUG;
           RobotLog.logExceptionHeader(TAG, e, "no packet received");
         }
+        result.close(); // give the buffer back, lest timeouts cost us a fresh one each time
         return null;
 
       } catch (IOException|RuntimeException e) {
         RobotLog.logExceptionHeader(TAG, e, "no packet received");
+        result.close();
         return null;
       }
 
@@ -175,6 +180,11 @@ public class RobocolDatagramSocket {
     return txDataTotal;
   }
 
+  /** @return the number of receive buffers allocated (rather than reused) since startup */
+  public long getRxAllocationCount() {
+    return RobocolDatagram.getReceiveAllocationCount();
+  }
+
   public void resetDataSample() {
     rxDataTotal += rxDataSample;
     txDataTotal += txDataSample;
@@ -69,7 +69,9 @@ public interface RobocolParsable {
     PEER_DISCOVERY(3),
     COMMAND(4),
     TELEMETRY(5),
-    KEEPALIVE(6);
+    KEEPALIVE(6),
+    TELEMETRY_DELTA(7),
+    TELEMETRY_SAMPLES(8);
 
     private static final MsgType[] VALUES_CACHE = MsgType.values();
     private final int type;
@@ -0,0 +1,422 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.robotcore.robocol;
+
+import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.robot.RobotState;
+import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.util.TypeConversion;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A {@link TelemetryMessage} expressed as the changes from the previous message with the same tag.
+ * <p>
+ * Robocol gives us no acknowledgement of telemetry, so each delta names the frame to which it
+ * applies, and the sender periodically sends a keyframe carrying the full contents. A receiver that
+ * misses a frame ignores deltas until the next keyframe arrives. See {@link Encoder} and {@link Decoder}.
+ * <p>
+ * Only peers which understand this message type should be sent it; see
+ * {@link com.qualcomm.robotcore.eventloop.EventLoopManager#setTelemetryDeltaEncoding(boolean)}.
+ */
+@SuppressWarnings("unused")
+public class TelemetryDeltaMessage extends RobocolParsableBase {
+
+  private static final Charset CHARSET = Charset.forName("UTF-8");
+
+  static final byte OP_PUT    = 0;
+  static final byte OP_REMOVE = 1;
+
+  static final int FLAG_KEYFRAME = 0x01;
+  static final int FLAG_SORTED   = 0x02;
+
+  /** An addition, change or (if value is null) removal of one entry */
+  static class Op<T> {
+    final String key;
+    final T      value;
+    Op(String key, T value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private       long                timestamp   = 0;
+  private       boolean             isKeyframe  = true;
+  private       boolean             isSorted    = true;
+  private       RobotState          robotState  = RobotState.UNKNOWN;
+  private       String              tag         = "";
+  private       int                 frame       = 0;
+  private       int                 baseFrame   = 0;
+  private final List<Op<String>>    stringOps   = new ArrayList<Op<String>>();
+  private final List<Op<Float>>     numberOps   = new ArrayList<Op<Float>>();
+
+  public TelemetryDeltaMessage() {
+    // default constructor
+  }
+
+  public TelemetryDeltaMessage(byte[] byteArray) throws RobotCoreException {
+    fromByteArray(byteArray);
+  }
+
+  public boolean isKeyframe() {
+    return isKeyframe;
+  }
+
+  public int getFrame() {
+    return frame;
+  }
+
+  public int getBaseFrame() {
+    return baseFrame;
+  }
+
+  /** @return the number of entries added, changed or removed by this message */
+  public int getOpCount() {
+    return stringOps.size() + numberOps.size();
+  }
+
+  @Override
+  public MsgType getRobocolMsgType() {
+    return MsgType.TELEMETRY_DELTA;
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Serialization
+  //------------------------------------------------------------------------------------------------
+
+  /*
+   * Data format
+   *
+   * bytes    | format | value
+   * ---------|--------|---------------------------------
+   *  8       | int64  | timestamp
+   *  1       | uint8  | flags: keyframe, isSorted
+   *  1       | uint8  | robotState
+   *  1       | uint8  | length of tag (may be zero)
+   *  varies  | UTF-8  | value of tag
+   *  2       | uint16 | frame number
+   *  2       | uint16 | number of the frame to which this delta applies (unused in keyframes)
+   *  1       | uint8  | count of string ops
+   *  varies  | varies | string ops
+   *  1       | uint8  | count of number ops
+   *  varies  | varies | number ops
+   *
+   * Ops are as the data points of TelemetryMessage, but preceded by a one byte
+   * opcode (put or remove); removals omit the value.
+   */
+
+  @Override
+  public synchronized byte[] toByteArray() throws RobotCoreException {
+    if (stringOps.size() > TelemetryMessage.cCountMax || numberOps.size() > TelemetryMessage.cCountMax) {
+      throw new RobotCoreException("Cannot have more than %d telemetry delta ops", TelemetryMessage.cCountMax);
+    }
+
+    byte[] tagBytes = tag.getBytes(CHARSET);
+    if (tagBytes.length > TelemetryMessage.cbTagMax) {
+      throw new RobotCoreException(String.format("Telemetry tag cannot exceed %d bytes [%s]", TelemetryMessage.cbTagMax, tag));
+    }
+
+    // Encode the strings just once, sizing as we go
+    List<byte[]> encoded = new ArrayList<byte[]>();
+    int payloadSize = TelemetryMessage.cbTimestamp + 1 + TelemetryMessage.cbRobotState + TelemetryMessage.cbTagLen + tagBytes.length + 2 + 2;
+
+    payloadSize += TelemetryMessage.cbCountLen;
+    for (Op<String> op : stringOps) {
+      payloadSize += 1 + encodeKey(encoded, op.key);
+      if (op.value != null) payloadSize += TelemetryMessage.cbValueLen + encodeValue(encoded, op.value);
+    }
+    payloadSize += TelemetryMessage.cbCountLen;
+    for (Op<Float> op : numberOps) {
+      payloadSize += 1 + encodeKey(encoded, op.key);
+      if (op.value != null) payloadSize += TelemetryMessage.cbFloat;
+    }
+
+    ByteBuffer buffer = getWriteBuffer(payloadSize);
+    buffer.putLong(timestamp);
+    buffer.put((byte)((isKeyframe ? FLAG_KEYFRAME : 0) | (isSorted ? FLAG_SORTED : 0)));
+    buffer.put(robotState.asByte());
+    TelemetryMessage.putTagLen(buffer, tagBytes.length);
+    buffer.put(tagBytes);
+    buffer.putShort((short)frame);
+    buffer.putShort((short)baseFrame);
+
+    Iterator<byte[]> bytes = encoded.iterator();
+    TelemetryMessage.putCount(buffer, stringOps.size());
+    for (Op<String> op : stringOps) {
+      buffer.put(op.value != null ? OP_PUT : OP_REMOVE);
+      putBytes(buffer, bytes.next());
+      if (op.value != null) putBytes(buffer, bytes.next());
+    }
+    TelemetryMessage.putCount(buffer, numberOps.size());
+    for (Op<Float> op : numberOps) {
+      buffer.put(op.value != null ? OP_PUT : OP_REMOVE);
+      putBytes(buffer, bytes.next());
+      if (op.value != null) buffer.putFloat(op.value);
+    }
+
+    return buffer.array();
+  }
+
+  private static int encodeKey(List<byte[]> encoded, String key) throws RobotCoreException {
+    byte[] bytes = key.getBytes(CHARSET);
+    if (bytes.length > TelemetryMessage.cbKeyMax)
+      throw new RobotCoreException("telemetry key '%s' too long: %d bytes; max %d bytes", key, bytes.length, TelemetryMessage.cbKeyMax);
+    encoded.add(bytes);
+    return TelemetryMessage.cbKeyLen + bytes.length;
+  }
+
+  private static int encodeValue(List<byte[]> encoded, String value) throws RobotCoreException {
+    byte[] bytes = value.getBytes(CHARSET);
+    if (bytes.length > TelemetryMessage.cbValueMax)
+      throw new RobotCoreException("telemetry value '%s' too long: %d bytes; max %d bytes", value, bytes.length, TelemetryMessage.cbValueMax);
+    encoded.add(bytes);
+    return bytes.length;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    TelemetryMessage.putKeyLen(buffer, bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[TelemetryMessage.getKeyLen(buffer)];
+    buffer.get(bytes);
+    return new String(bytes, CHARSET);
+  }
+
+  @Override
+  public synchronized void fromByteArray(byte[] byteArray) throws RobotCoreException {
+    stringOps.clear();
+    numberOps.clear();
+
+    ByteBuffer buffer = getReadBuffer(byteArray);
+    timestamp = buffer.getLong();
+    int flags = TypeConversion.unsignedByteToInt(buffer.get());
+    isKeyframe = (flags & FLAG_KEYFRAME) != 0;
+    isSorted = (flags & FLAG_SORTED) != 0;
+    robotState = RobotState.fromByte(buffer.get());
+    byte[] tagBytes = new byte[TelemetryMessage.getTagLen(buffer)];
+    buffer.get(tagBytes);
+    tag = new String(tagBytes, CHARSET);
+    frame = TypeConversion.unsignedShortToInt(buffer.getShort());
+    baseFrame = TypeConversion.unsignedShortToInt(buffer.getShort());
+
+    int stringOpCount = TelemetryMessage.getCount(buffer);
+    for (int i = 0; i < stringOpCount; i++) {
+      byte op = buffer.get();
+      String key = getString(buffer);
+      stringOps.add(new Op<String>(key, op == OP_PUT ? getString(buffer) : null));
+    }
+    int numberOpCount = TelemetryMessage.getCount(buffer);
+    for (int i = 0; i < numberOpCount; i++) {
+      byte op = buffer.get();
+      String key = getString(buffer);
+      numberOps.add(new Op<Float>(key, op == OP_PUT ? buffer.getFloat() : null));
+    }
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Encoding
+  //------------------------------------------------------------------------------------------------
+
+  /** The contents of the most recent frame of one tag, as known to an encoder or decoder */
+  static class Table {
+    final Map<String, String> strings = new LinkedHashMap<String, String>();
+    final Map<String, Float>  numbers = new LinkedHashMap<String, Float>();
+    int                       frame;
+    long                      nanoTimeKeyframe;
+  }
+
+  /**
+   * Turns successive {@link TelemetryMessage}s into {@link TelemetryDeltaMessage}s. Keeps, for
+   * each tag, the contents of the last frame sent.
+   */
+  public static class Encoder {
+    protected final Map<String, Table> tables = new HashMap<String, Table>();
+    protected long nsKeyframeInterval = 1000 * ElapsedTime.MILLIS_IN_NANO;
+
+    /** Sets the maximum interval between keyframes, which bounds how long a lost frame can affect a receiver */
+    public synchronized void setMsKeyframeInterval(long msKeyframeInterval) {
+      this.nsKeyframeInterval = msKeyframeInterval * ElapsedTime.MILLIS_IN_NANO;
+    }
+
+    /** Forgets all state, so that the next message for each tag is sent as a keyframe */
+    public synchronized void reset() {
+      tables.clear();
+    }
+
+    public synchronized TelemetryDeltaMessage encode(TelemetryMessage telemetry) {
+      long nanoTimeNow = System.nanoTime();
+      String tag = telemetry.getTag();
+      Table table = tables.get(tag);
+
+      TelemetryDeltaMessage result = new TelemetryDeltaMessage();
+      result.timestamp = System.currentTimeMillis();
+      result.isSorted = telemetry.isSorted();
+      result.robotState = telemetry.getRobotState();
+      result.tag = tag.equals(TelemetryMessage.DEFAULT_TAG) ? "" : tag;
+
+      Map<String, String> strings = telemetry.getDataStrings();
+      Map<String, Float> numbers = telemetry.getDataNumbers();
+
+      result.isKeyframe = table == null
+          || nanoTimeNow - table.nanoTimeKeyframe >= nsKeyframeInterval
+          || !diff(table.strings, strings, result.stringOps)
+          || !diff(table.numbers, numbers, result.numberOps)
+          || result.stringOps.size() > TelemetryMessage.cCountMax
+          || result.numberOps.size() > TelemetryMessage.cCountMax;
+
+      if (table == null) {
+        table = new Table();
+        tables.put(tag, table);
+      }
+      result.baseFrame = table.frame;
+      result.frame = table.frame = (table.frame + 1) & 0xFFFF;
+
+      if (result.isKeyframe) {
+        result.stringOps.clear();
+        result.numberOps.clear();
+        for (Entry<String, String> entry : strings.entrySet()) result.stringOps.add(new Op<String>(entry.getKey(), entry.getValue()));
+        for (Entry<String, Float> entry : numbers.entrySet()) result.numberOps.add(new Op<Float>(entry.getKey(), entry.getValue()));
+        table.nanoTimeKeyframe = nanoTimeNow;
+      }
+
+      table.strings.clear();
+      table.strings.putAll(strings);
+      table.numbers.clear();
+      table.numbers.putAll(numbers);
+      return result;
+    }
+
+    /**
+     * Computes the ops which turn previous into current. Returns false if no such ops exist, which
+     * is the case if the order of the entries has changed other than by removing some and appending
+     * others at the end, as a receiver applying puts to a linked map would not reproduce that order.
+     */
+    protected static <T> boolean diff(Map<String, T> previous, Map<String, T> current, List<Op<T>> ops) {
+      Iterator<String> retained = previous.keySet().iterator();
+      boolean appending = false;
+      for (Entry<String, T> entry : current.entrySet()) {
+        String key = entry.getKey();
+        if (previous.containsKey(key)) {
+          if (appending) return false;
+          // Skip (and remove) any previous entries that have since gone away
+          for (;;) {
+            String previousKey = retained.next();
+            if (previousKey.equals(key)) break;
+            if (current.containsKey(previousKey)) return false;   // reordered
+            ops.add(new Op<T>(previousKey, null));
+          }
+          if (!entry.getValue().equals(previous.get(key))) {
+            ops.add(new Op<T>(key, entry.getValue()));
+          }
+        } else {
+          appending = true;
+          ops.add(new Op<T>(key, entry.getValue()));
+        }
+      }
+      while (retained.hasNext()) {
+        String previousKey = retained.next();
+        if (!current.containsKey(previousKey)) {
+          ops.add(0, new Op<T>(previousKey, null));   // removals before the appends
+        }
+      }
+      return true;
+    }
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Decoding
+  //------------------------------------------------------------------------------------------------
+
+  /**
+   * Reconstitutes {@link TelemetryMessage}s from {@link TelemetryDeltaMessage}s. Keeps, for
+   * each tag, the contents of the last frame received.
+   */
+  public static class Decoder {
+    protected final Map<String, Table> tables = new HashMap<String, Table>();
+
+    public synchronized void reset() {
+      tables.clear();
+    }
+
+    /**
+     * Applies the indicated message. Returns the full telemetry it represents, or null if it
+     * cannot yet be decoded because a frame on which it depends was missed.
+     */
+    public synchronized TelemetryMessage decode(TelemetryDeltaMessage delta) {
+      Table table = tables.get(delta.tag);
+      if (delta.isKeyframe) {
+        if (table == null) {
+          table = new Table();
+          tables.put(delta.tag, table);
+        }
+        table.strings.clear();
+        table.numbers.clear();
+      } else if (table == null || table.frame != delta.baseFrame) {
+        if (table != null) tables.remove(delta.tag);  // wait for a keyframe
+        return null;
+      }
+      apply(table.strings, delta.stringOps);
+      apply(table.numbers, delta.numberOps);
+      table.frame = delta.frame;
+
+      TelemetryMessage result = new TelemetryMessage();
+      result.setTag(delta.tag);
+      result.setSorted(delta.isSorted);
+      result.setRobotState(delta.robotState);
+      result.setTimestamp(delta.timestamp);
+      for (Entry<String, String> entry : table.strings.entrySet()) result.addData(entry.getKey(), entry.getValue());
+      for (Entry<String, Float> entry : table.numbers.entrySet()) result.addData(entry.getKey(), (float)entry.getValue());
+      return result;
+    }
+
+    protected static <T> void apply(Map<String, T> table, List<Op<T>> ops) {
+      for (Op<T> op : ops) {
+        if (op.value == null) {
+          table.remove(op.key);
+        } else {
+          table.put(op.key, op.value);
+        }
+      }
+    }
+  }
+}
@@ -53,6 +53,7 @@ public class TelemetryMessage extends RobocolParsableBase {
   private final Map<String, Float>  dataNumbers = new LinkedHashMap<String, Float>();
   private       String              tag         = "";     // an empty tag is treated as the default tag
   private       long                timestamp   = 0;      // when was this telemetry transmitted (ms)
+  private       boolean             isTimestampSet = false; // if set, don't restamp on transmission
   private       boolean             isSorted    = true;   // should this telemetry be sorted on the driver station
   private       RobotState          robotState  = RobotState.UNKNOWN;
 
@@ -72,6 +73,16 @@ public class TelemetryMessage extends RobocolParsableBase {
     return timestamp;
   }
 
+  /**
+   * Sets the timestamp this message was originally sent, for messages which are reconstituted
+   * and forwarded locally (see {@link TelemetryDeltaMessage.Decoder}). Until the next
+   * {@link #clearData()}, {@link #toByteArray()} will preserve this rather than restamping.
+   */
+  public synchronized void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+    this.isTimestampSet = true;
+  }
+
   /**
    * Returns whether this telemetry should be sorted by keys on the driver station or not.
    * If not sorted, then data is displayed in the order in which it was added to the telemetry.
@@ -192,6 +203,7 @@ public class TelemetryMessage extends RobocolParsableBase {
    */
   public synchronized void clearData() {
     timestamp = 0;
+    isTimestampSet = false;
     dataStrings.clear();
     dataNumbers.clear();
   }
@@ -205,7 +217,9 @@ public class TelemetryMessage extends RobocolParsableBase {
   public synchronized byte[] toByteArray() throws RobotCoreException {
   // See countMessageBytes(...) for information about data format
 
-    timestamp = System.currentTimeMillis();
+    if (!isTimestampSet) {
+      timestamp = System.currentTimeMillis();
+    }
 
     if (dataStrings.size() > cCountMax) {
       throw new RobotCoreException("Cannot have more than %d string data points", cCountMax);
@@ -0,0 +1,354 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.qualcomm.robotcore.robocol;
+
+import com.qualcomm.robotcore.exception.RobotCoreException;
+import com.qualcomm.robotcore.util.TypeConversion;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A batch of timestamped numeric samples on registered telemetry channels.
+ * <p>
+ * Unlike {@link TelemetryMessage}, which carries at most one formatted value per key per
+ * transmission, this carries every sample taken since the previous transmission, in binary.
+ * Channels are identified on the wire by a one byte id; each message carries the definitions
+ * (id, type and name) of the channels for which it has samples, so that every message may be
+ * decoded on its own. Sample storage is preallocated: adding samples creates no garbage.
+ * <p>
+ * Peers that do not understand this message type see it only in
+ * {@link org.firstinspires.ftc.robotcore.internal.network.RecvLoopRunnable.RecvLoopCallback#packetReceived packetReceived()}.
+ */
+@SuppressWarnings("unused")
+public class TelemetrySamplesMessage extends RobocolParsableBase {
+
+  private static final Charset CHARSET = Charset.forName("UTF-8");
+
+  public static final byte TYPE_INT    = 0;
+  public static final byte TYPE_FLOAT  = 1;
+  public static final byte TYPE_DOUBLE = 2;
+
+  static final int cbTimestamp   = 8;
+  static final int cbNanoTime    = 8;
+  static final int cbChannelLen  = 1;
+  static final int cbNameLen     = 1;
+  static final int cbSampleCount = 2;
+  static final int cbOffset      = 4;
+
+  public final static int cChannelMax = (1 << (cbChannelLen*8)) - 1;
+  public final static int cbNameMax   = (1 << (cbNameLen*8)) - 1;
+  public final static int cSampleMax  = 1024;   // keeps a frame of doubles to about 14k bytes
+
+  private final byte[][]  channelNames    = new byte[cChannelMax][];
+  private final byte[]    channelTypes    = new byte[cChannelMax];
+  private       int       channelCount    = 0;
+  private final boolean[] channelUsed     = new boolean[cChannelMax];   // scratch for serialization
+
+  private final byte[]    sampleChannels  = new byte[cSampleMax];
+  private final long[]    sampleNanoTimes = new long[cSampleMax];
+  private final long[]    sampleBits      = new long[cSampleMax];
+  private       int       sampleCount     = 0;
+
+  private       long      timestamp       = 0;  // wall time of transmission (ms)
+  private       long      nanoTimeSent    = 0;  // System.nanoTime() of transmission, in the sender's clock
+
+  public TelemetrySamplesMessage() {
+    // default constructor
+  }
+
+  public TelemetrySamplesMessage(byte[] byteArray) throws RobotCoreException {
+    fromByteArray(byteArray);
+  }
+
+  @Override
+  public MsgType getRobocolMsgType() {
+    return MsgType.TELEMETRY_SAMPLES;
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Channels
+  //------------------------------------------------------------------------------------------------
+
+  /**
+   * Defines a new channel.
+   * @param name  the name of the channel, as to be displayed by the receiver
+   * @param type  one of {@link #TYPE_INT}, {@link #TYPE_FLOAT}, or {@link #TYPE_DOUBLE}
+   * @return the id of the new channel
+   */
+  public synchronized int defineChannel(String name, byte type) {
+    if (channelCount >= cChannelMax) {
+      throw new IllegalArgumentException(String.format("cannot have more than %d telemetry channels", cChannelMax));
+    }
+    if (type != TYPE_INT && type != TYPE_FLOAT && type != TYPE_DOUBLE) {
+      throw new IllegalArgumentException(String.format("invalid telemetry channel type: %d", type));
+    }
+    byte[] nameBytes = name.getBytes(CHARSET);
+    if (nameBytes.length > cbNameMax) {
+      throw new IllegalArgumentException(String.format("telemetry channel name '%s' too long: %d bytes; max %d bytes", name, nameBytes.length, cbNameMax));
+    }
+    int channel = channelCount++;
+    channelNames[channel] = nameBytes;
+    channelTypes[channel] = type;
+    return channel;
+  }
+
+  public synchronized int getChannelCount() {
+    return channelCount;
+  }
+
+  /** @return the name of the indicated channel, or null if this message has no definition for it */
+  public synchronized String getChannelName(int channel) {
+    return channelNames[channel] == null ? null : new String(channelNames[channel], CHARSET);
+  }
+
+  public synchronized byte getChannelType(int channel) {
+    return channelTypes[channel];
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Samples
+  //------------------------------------------------------------------------------------------------
+
+  public static long toBits(byte type, double value) {
+    switch (type) {
+      case TYPE_INT:    return (int)value;
+      case TYPE_FLOAT:  return Float.floatToRawIntBits((float)value);
+      default:          return Double.doubleToRawLongBits(value);
+    }
+  }
+
+  public static long toBits(byte type, int value) {
+    switch (type) {
+      case TYPE_INT:    return value;
+      case TYPE_FLOAT:  return Float.floatToRawIntBits((float)value);
+      default:          return Double.doubleToRawLongBits(value);
+    }
+  }
+
+  public static double fromBits(byte type, long bits) {
+    switch (type) {
+      case TYPE_INT:    return (int)bits;
+      case TYPE_FLOAT:  return Float.intBitsToFloat((int)bits);
+      default:          return Double.longBitsToDouble(bits);
+    }
+  }
+
+  /**
+   * Adds a sample to this message.
+   * @param channel   a channel previously returned from {@link #defineChannel(String, byte)}
+   * @param nanoTime  the {@link System#nanoTime()} at which the sample was taken
+   * @param bits      the value of the sample, as encoded by {@link #toBits(byte, double) toBits()}
+   * @return false if the message has no room for the sample, in which case it should be
+   *         transmitted, {@link #clearSamples() cleared}, and the sample added again.
+   */
+  public synchronized boolean addSample(int channel, long nanoTime, long bits) {
+    if (sampleCount == cSampleMax) {
+      return false;
+    }
+    if (sampleCount > 0 && Math.abs(nanoTime - sampleNanoTimes[0]) > Integer.MAX_VALUE) {
+      return false; // offset won't fit on the wire
+    }
+    sampleChannels[sampleCount] = (byte)channel;
+    sampleNanoTimes[sampleCount] = nanoTime;
+    sampleBits[sampleCount] = bits;
+    sampleCount++;
+    return true;
+  }
+
+  public synchronized boolean hasSamples() {
+    return sampleCount > 0;
+  }
+
+  public synchronized int getSampleCount() {
+    return sampleCount;
+  }
+
+  public synchronized int getSampleChannel(int sample) {
+    return TypeConversion.unsignedByteToInt(sampleChannels[sample]);
+  }
+
+  /** @return the time at which the indicated sample was taken, in the sender's {@link System#nanoTime()} clock */
+  public synchronized long getSampleNanoTime(int sample) {
+    return sampleNanoTimes[sample];
+  }
+
+  public synchronized double getSampleValue(int sample) {
+    return fromBits(channelTypes[getSampleChannel(sample)], sampleBits[sample]);
+  }
+
+  /** @return the wall time at which this message was sent (ms), or 0 if never sent */
+  public synchronized long getTimestamp() {
+    return timestamp;
+  }
+
+  /** @return the {@link System#nanoTime()} at which this message was sent, in the sender's clock */
+  public synchronized long getNanoTimeSent() {
+    return nanoTimeSent;
+  }
+
+  /** Removes all samples, but retains the channel definitions */
+  public synchronized void clearSamples() {
+    sampleCount = 0;
+  }
+
+  //------------------------------------------------------------------------------------------------
+  // Serialization
+  //------------------------------------------------------------------------------------------------
+
+  /*
+   * Data format
+   *
+   * bytes    | format | value
+   * ---------|--------|---------------------------------
+   *  8       | int64  | timestamp (wall time, ms)
+   *  8       | int64  | nanoTime of transmission
+   *  8       | int64  | nanoTime of the first sample
+   *  1       | uint8  | count of channel definitions
+   *  varies  | varies | channel definitions
+   *  2       | uint16 | count of samples
+   *  varies  | varies | samples
+   *
+   * Channel definition format
+   *
+   *  1       | uint8  | channel id
+   *  1       | uint8  | type: int, float, double
+   *  1       | uint8  | length of name
+   *  varies  | UTF-8  | name
+   *
+   * Sample format
+   *
+   *  1       | uint8  | channel id
+   *  4       | int32  | nanoTime of sample, relative to that of the first sample
+   *  4 or 8  | varies | value: int32, float32, or float64 according to the channel type
+   */
+
+  @Override
+  public synchronized byte[] toByteArray() throws RobotCoreException {
+    timestamp = System.currentTimeMillis();
+    nanoTimeSent = System.nanoTime();
+
+    int payloadSize = cbTimestamp + cbNanoTime + cbNanoTime + cbChannelLen + cbSampleCount;
+    int usedChannelCount = 0;
+    for (int i = 0; i < channelCount; i++) {
+      channelUsed[i] = false;
+    }
+    for (int i = 0; i < sampleCount; i++) {
+      int channel = TypeConversion.unsignedByteToInt(sampleChannels[i]);
+      if (!channelUsed[channel]) {
+        channelUsed[channel] = true;
+        usedChannelCount++;
+        payloadSize += cbChannelLen + 1 + cbNameLen + channelNames[channel].length;
+      }
+      payloadSize += cbChannelLen + cbOffset + cbValue(channelTypes[channel]);
+    }
+
+    ByteBuffer buffer = getWriteBuffer(payloadSize);
+    long nanoTimeBase = sampleCount > 0 ? sampleNanoTimes[0] : nanoTimeSent;
+    buffer.putLong(timestamp);
+    buffer.putLong(nanoTimeSent);
+    buffer.putLong(nanoTimeBase);
+
+    buffer.put((byte)usedChannelCount);
+    for (int channel = 0; channel < channelCount; channel++) {
+      if (channelUsed[channel]) {
+        buffer.put((byte)channel);
+        buffer.put(channelTypes[channel]);
+        buffer.put((byte)channelNames[channel].length);
+        buffer.put(channelNames[channel]);
+      }
+    }
+
+    buffer.putShort((short)sampleCount);
+    for (int i = 0; i < sampleCount; i++) {
+      byte channel = sampleChannels[i];
+      buffer.put(channel);
+      buffer.putInt((int)(sampleNanoTimes[i] - nanoTimeBase));
+      if (channelTypes[TypeConversion.unsignedByteToInt(channel)] == TYPE_DOUBLE) {
+        buffer.putLong(sampleBits[i]);
+      } else {
+        buffer.putInt((int)sampleBits[i]);
+      }
+    }
+
+    return buffer.array();
+  }
+
+  @Override
+  public synchronized void fromByteArray(byte[] byteArray) throws RobotCoreException {
+    for (int i = 0; i < cChannelMax; i++) {
+      channelNames[i] = null;
+    }
+    channelCount = 0;
+    sampleCount = 0;
+
+    ByteBuffer buffer = getReadBuffer(byteArray);
+    timestamp = buffer.getLong();
+    nanoTimeSent = buffer.getLong();
+    long nanoTimeBase = buffer.getLong();
+
+    int definitionCount = TypeConversion.unsignedByteToInt(buffer.get());
+    for (int i = 0; i < definitionCount; i++) {
+      int channel = TypeConversion.unsignedByteToInt(buffer.get());
+      if (channel >= cChannelMax) {
+        throw new RobotCoreException("invalid telemetry channel id: %d", channel);
+      }
+      channelTypes[channel] = buffer.get();
+      byte[] nameBytes = new byte[TypeConversion.unsignedByteToInt(buffer.get())];
+      buffer.get(nameBytes);
+      channelNames[channel] = nameBytes;
+      channelCount = Math.max(channelCount, channel + 1);
+    }
+
+    int count = TypeConversion.unsignedShortToInt(buffer.getShort());
+    if (count > cSampleMax) {
+      throw new RobotCoreException("too many telemetry samples: %d", count);
+    }
+    for (int i = 0; i < count; i++) {
+      byte channel = buffer.get();
+      if (channelNames[TypeConversion.unsignedByteToInt(channel)] == null) {
+        throw new RobotCoreException("undefined telemetry channel: %d", TypeConversion.unsignedByteToInt(channel));
+      }
+      sampleChannels[i] = channel;
+      sampleNanoTimes[i] = nanoTimeBase + buffer.getInt();
+      sampleBits[i] = channelTypes[TypeConversion.unsignedByteToInt(channel)] == TYPE_DOUBLE
+          ? buffer.getLong()
+          : buffer.getInt();
+    }
+    sampleCount = count;
+  }
+
+  private static int cbValue(byte type) {
+    return type == TYPE_DOUBLE ? 8 : 4;
+  }
+}
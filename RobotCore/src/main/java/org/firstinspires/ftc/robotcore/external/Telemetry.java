@@ -455,6 +455,127 @@ public interface Telemetry
         <T> Item addData(String caption, String format, Func<T> valueProducer);
         }
 
+    //----------------------------------------------------------------------------------------------
+    // Numeric Items
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Instances of {@link NumericItem} represent a numeric item of data on the driver station
+     * telemetry display. The caption is registered once, and the value is held as a primitive,
+     * being formatted only when telemetry is actually transmitted. Setting the value thus creates
+     * no garbage, making numeric items suitable for data updated on every loop cycle.
+     *
+     * <p>Numeric items are always retained: they are unaffected by {@link #clear()}, but are
+     * removed by {@link #clearAll()}.</p>
+     *
+     * @see #addNumericItem(String, int)
+     */
+    interface NumericItem
+        {
+        /**
+         * Returns the caption associated with this item.
+         * @return the caption associated with this item.
+         */
+        String getCaption();
+
+        /**
+         * Sets the value of this item, to be displayed with the item's number of decimal places.
+         * @param value the new value of the item
+         * @return the receiver
+         */
+        NumericItem setValue(double value);
+
+        /**
+         * Sets the value of this item, to be displayed as an integer.
+         * @param value the new value of the item
+         * @return the receiver
+         */
+        NumericItem setValue(long value);
+
+        /**
+         * Returns the most recently set value of this item.
+         * @return the most recently set value of this item.
+         */
+        double getValue();
+        }
+
+    /**
+     * Adds a numeric item to the end of the telemetry being built for driver station display.
+     * @param caption       the caption to use
+     * @param decimalPlaces the number of digits to display after the decimal point for values
+     *                      set with {@link NumericItem#setValue(double)}
+     * @return              an {@link NumericItem} that can be used to update the value
+     * @see #removeNumericItem(NumericItem)
+     */
+    NumericItem addNumericItem(String caption, int decimalPlaces);
+
+    /**
+     * Removes a numeric item from the receiver telemetry, if present.
+     * @param item  the item to remove
+     * @return      true if any change was made to the receiver (ie: the item was present); false otherwise
+     */
+    boolean removeNumericItem(NumericItem item);
+
+    //----------------------------------------------------------------------------------------------
+    // Sample Channels
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The representation in which the samples of a {@link Channel} are transmitted.
+     */
+    enum SampleType { INT, FLOAT, DOUBLE }
+
+    /**
+     * Instances of {@link Channel} carry a stream of timestamped numeric samples to the driver
+     * station. Unlike items, whose values are sent at most once per transmission interval, every
+     * sample added to a channel is buffered until the next transmission and then sent in a
+     * compact binary form, so signals may be recorded at full loop rate. Adding a sample creates
+     * no garbage.
+     *
+     * @see #addChannel(String, SampleType)
+     */
+    interface Channel
+        {
+        /**
+         * Returns the name of this channel.
+         * @return the name of this channel.
+         */
+        String getName();
+
+        /**
+         * Returns the representation in which samples of this channel are transmitted.
+         * @return the representation in which samples of this channel are transmitted.
+         */
+        SampleType getType();
+
+        /**
+         * Records a sample taken now.
+         * @param value the value of the sample
+         */
+        void addSample(double value);
+
+        /**
+         * Records a sample taken now.
+         * @param value the value of the sample
+         */
+        void addSample(int value);
+
+        /**
+         * Records a sample taken at the indicated time.
+         * @param value     the value of the sample
+         * @param nanoTime  the {@link System#nanoTime()} at which the sample was taken
+         */
+        void addSample(double value, long nanoTime);
+        }
+
+    /**
+     * Registers a new sample channel. Channels persist until the end of the OpMode.
+     * @param name  the name of the channel
+     * @param type  the representation in which to transmit the channel's samples
+     * @return      a {@link Channel} to which samples can be added
+     */
+    Channel addChannel(String name, SampleType type);
+
     //----------------------------------------------------------------------------------------------
     // Properties
     //----------------------------------------------------------------------------------------------
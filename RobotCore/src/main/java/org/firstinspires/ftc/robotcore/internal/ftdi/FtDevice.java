@@ -88,6 +88,7 @@ public class FtDevice extends FtConstants
     public static final int RC_ILLEGAL_ARGUMENT         = -2;
     public static final int RC_ILLEGAL_STATE            = -3;
     public static final int RC_BITMODE_UNAVAILABLE      = -4;
+    public static final int RC_FRAMING_ERROR            = -5;
     public static final int RC_PARANOIA                 = -1000;
 
     //----------------------------------------------------------------------------------------------
@@ -697,6 +698,19 @@ public class FtDevice extends FtConstants
             }
         }
 
+    /** Reads one length-prefixed frame. See {@link ReadBufferManager#readBulkInFrame} */
+    public int readFrame(byte[] framing, int ibLength, byte[] data, long msTimeout, @Nullable TimeWindow timeWindow) throws InterruptedException
+        {
+        if (!this.isOpen())
+            {
+            return RC_DEVICE_CLOSED;
+            }
+        else
+            {
+            return this.mReadBufferManager.readBulkInFrame(framing, ibLength, data, msTimeout, timeWindow);
+            }
+        }
+
     /** nb: unlike the original FTDI driver, we only here do synchronous transfers. This is
      * largely because we understand there to be latent bugs in the Android layers involved
      * in the queueing necessary to support asynchronicity. */
@@ -50,7 +50,6 @@ import org.firstinspires.ftc.robotcore.internal.system.Assert;
 import org.firstinspires.ftc.robotcore.internal.system.Deadline;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -392,7 +391,11 @@ public class ReadBufferManager extends FtConstants
             }
         }
 
-    /** called on {@link ReadBufferWorker} thread */
+    /**
+     * Called on {@link ReadBufferWorker} thread. The modem status bytes which lead each USB
+     * packet are stripped in place, compacting the user data of all the packets to the front
+     * of the packet buffer, so that it can be appended to our circular buffer in one write.
+     */
     private void extractReadData(BulkPacketBufferIn packetBuffer) throws InterruptedException
         {
         final int cbBuffer = packetBuffer.getCurrentLength();
@@ -407,63 +410,56 @@ public class ReadBufferManager extends FtConstants
                 final int packetCount = cbBuffer / this.mEndpointMaxPacketSize + (cbBuffer % this.mEndpointMaxPacketSize > 0 ? 1 : 0);
                 // RobotLog.dd(TAG, "packetCount=%d cb=%d", packetCount, cbBuffer);
 
-                ByteBuffer byteBuffer = packetBuffer.getByteBuffer();
+                final byte[] array = packetBuffer.array();
+                final int    ibBase = packetBuffer.arrayOffset();
                 int cbExtracted = 0;
-                for (int iPacket = 0; iPacket < packetCount; ++iPacket)
+
+                synchronized (mCircularBuffer)
                     {
-                    int ibFirst;
-                    int ibMax;
-                    if (iPacket == packetCount - 1)
+                    int cbCompacted = 0;
+                    for (int iPacket = 0; iPacket < packetCount; ++iPacket)
                         {
-                        // Last packet : use modem status at start of packet
-                        ibFirst = iPacket * this.mEndpointMaxPacketSize;
-                        ibMax = cbBuffer;
-                        setBufferBounds(byteBuffer, ibFirst, ibMax);
-                        //
-                        byte b0 = byteBuffer.get(); // Assert.assertTrue(b0 == 0x01, "b0==0x%02x", b0);
-                        signalEvents = (short) (this.mDevice.mDeviceInfo.modemStatus ^ (short) (b0 & 0xF0));
-                        this.mDevice.mDeviceInfo.modemStatus = (short) (b0 & 0xF0); // this sign extends, which probably isn't what's desired
-                        //
-                        byte b1 = byteBuffer.get(); // Assert.assertTrue(b1==0x60 || b1==0x00, "b1==0x%02x", b1);
-                        this.mDevice.mDeviceInfo.lineStatus = (short) (b1 & 0xFF);  // this sign extends, which probably isn't what's desired
-                        //
-                        ibFirst += MODEM_STATUS_SIZE;
-                        //
-                        if (byteBuffer.hasRemaining())
-                            {
-                            signalLineEvents = (short) (this.mDevice.mDeviceInfo.lineStatus & 0x1E);
-                            }
-                        else
+                        final int ibPacket = iPacket * this.mEndpointMaxPacketSize;
+                        final int ibFirst  = ibPacket + MODEM_STATUS_SIZE;
+                        final int ibMax    = Math.min(ibPacket + this.mEndpointMaxPacketSize, cbBuffer);
+
+                        if (iPacket == packetCount - 1 && ibMax - ibPacket >= MODEM_STATUS_SIZE)
                             {
-                            signalLineEvents = 0;
+                            // Last packet : use modem status at start of packet
+                            byte b0 = array[ibBase + ibPacket]; // Assert.assertTrue(b0 == 0x01, "b0==0x%02x", b0);
+                            signalEvents = (short) (this.mDevice.mDeviceInfo.modemStatus ^ (short) (b0 & 0xF0));
+                            this.mDevice.mDeviceInfo.modemStatus = (short) (b0 & 0xF0); // this sign extends, which probably isn't what's desired
+                            //
+                            byte b1 = array[ibBase + ibPacket + 1]; // Assert.assertTrue(b1==0x60 || b1==0x00, "b1==0x%02x", b1);
+                            this.mDevice.mDeviceInfo.lineStatus = (short) (b1 & 0xFF);  // this sign extends, which probably isn't what's desired
+                            //
+                            signalLineEvents = ibMax > ibFirst ? (short) (this.mDevice.mDeviceInfo.lineStatus & 0x1E) : 0;
                             }
-                        }
-                    else
-                        {
                         // Not the last packet : ignore modem status at start of packet
-                        ibFirst = iPacket * this.mEndpointMaxPacketSize + MODEM_STATUS_SIZE;
-                        ibMax = (iPacket + 1) * this.mEndpointMaxPacketSize;
-                        setBufferBounds(byteBuffer, ibFirst, ibMax);
-                        }
 
-                    Assert.assertTrue(byteBuffer.remaining() == ibMax - ibFirst);
-                    int cbPacket = ibMax - ibFirst;
-                    if (cbPacket > 0)
-                        {
-                        synchronized (mCircularBuffer)
+                        int cbPacket = ibMax - ibFirst;
+                        if (cbPacket > 0)
                             {
-                            // Remember the bytes in our linear array of bytes
-                            cbExtracted += mCircularBuffer.write(byteBuffer);
+                            // Slide the user data down over the status bytes (and those of earlier packets)
+                            if (ibFirst != cbCompacted)
+                                {
+                                System.arraycopy(array, ibBase + ibFirst, array, ibBase + cbCompacted, cbPacket);
+                                }
+                            cbCompacted += cbPacket;
 
                             // The first of those was at the start a packet (ie: followed modem status
                             // bytes) while the remainder were not
                             mMarkedItemQueue.addMarkedItem();
                             mMarkedItemQueue.addUnmarkedItems(cbPacket-1);
-
-                            // Remember when these packets came in
-                            mTimestamps.addLast(packetBuffer.getTimestamp(TimeUnit.NANOSECONDS), cbPacket);
                             }
                         }
+
+                    if (cbCompacted > 0)
+                        {
+                        // Remember the bytes in our linear array of bytes, and when they came in
+                        cbExtracted = mCircularBuffer.write(array, ibBase, cbCompacted);
+                        mTimestamps.addLast(packetBuffer.getTimestamp(TimeUnit.NANOSECONDS), cbCompacted);
+                        }
                     }
 
                 if (cbExtracted > 0)
@@ -472,7 +468,7 @@ public class ReadBufferManager extends FtConstants
                     wakeReadBulkInData();
                     }
 
-                byteBuffer.clear();
+                packetBuffer.getByteBuffer().clear();
                 this.processEventChars(signalRxChar, signalEvents, signalLineEvents);
                 }
             finally
@@ -482,13 +478,6 @@ public class ReadBufferManager extends FtConstants
             }
         }
 
-    private void setBufferBounds(ByteBuffer buffer, int ibFirst, int ibMax)
-        {
-        buffer.clear();             // don't assume positions: position <- 0, limit <- capacity
-        buffer.position(ibFirst);
-        buffer.limit(ibMax);
-        }
-
     private void verifyInvariants(String context)
         {
         /*synchronized (mCircularBuffer)
@@ -547,28 +536,99 @@ public class ReadBufferManager extends FtConstants
                         if (mCircularBuffer.size() >= cbToRead)
                             {
                             // Yes, read it
-                            int cbRead = mCircularBuffer.read(data, ibFirst, cbToRead);
-                            if (cbRead > 0)
+                            return removeBulkInData(data, ibFirst, cbToRead, timeWindow);
+                            }
+
+                        // Not enough data. Wait for more data to come in. In art, the wait system
+                        // complains to the log if you use a non-integer wait interval, so we cap.
+                        long msRemaining = Math.min(readDeadline.timeRemaining(TimeUnit.MILLISECONDS), Integer.MAX_VALUE);
+                        if (msRemaining > 0)
+                            {
+                            mCircularBuffer.wait(msRemaining);
+                            }
+                        }
+                    }
+
+                // The device was closed while we were waiting
+                return FtDevice.RC_DEVICE_CLOSED;
+                }
+            finally
+                {
+                verifyInvariants("<-readBulkInData");
+                mReadBulkInDataThread = null;
+                }
+            }
+        else
+            {
+            return 0;
+            }
+        }
+
+    /**
+     * Attempt to read one length-prefixed frame from the device, subject to a timeout. Once the
+     * header has arrived, the framing bytes and the length are examined in place in our buffer,
+     * and the whole frame is then read with a single copy. Nothing is consumed if the buffered
+     * data does not look like the start of a frame, so the caller can resynchronize as it sees fit.
+     *
+     * @param framing       the bytes with which every frame begins
+     * @param ibLength      the offset within the frame of the frame's total length, an unsigned
+     *                      little endian short
+     * @param data          the buffer into which the frame is to be placed, starting at the beginning
+     * @param msTimeout     the number of milliseconds to wait for the result
+     * @param timeWindow    optional place into which to record the timestamps that cover the duration of the read data
+     * @return              the length of the frame read; zero if the timeout is reached w/o returning the frame;
+     *                      FT_Device.RC_FRAMING_ERROR : the data does not begin with a frame that fits in data;
+     *                      FT_Device.RC_DEVICE_CLOSED : the device was closed
+     */
+    public int readBulkInFrame(final byte[] framing, final int ibLength, final byte[] data, long msTimeout, @Nullable TimeWindow timeWindow) throws InterruptedException
+        {
+        final int cbHeader = Math.max(framing.length, ibLength + 2);
+        if (mReadBulkInDataInterruptRequested)
+            {
+            throw new InterruptedException("interrupted in readBulkInFrame()");
+            }
+        else if (isOpen())
+            {
+            mReadBulkInDataThread = Thread.currentThread();
+            try {
+                verifyInvariants("->readBulkInFrame");
+                final Deadline readDeadline = getReadDeadline(msTimeout);
+                int cbFrame = 0;    // not known until the header has arrived
+
+                while (isOpen())
+                    {
+                    if (readDeadline.hasExpired())
+                        {
+                        return 0;
+                        }
+                    if (Thread.interrupted())
+                        {
+                        throw new InterruptedException("interrupted reading USB data");
+                        }
+
+                    synchronized (mCircularBuffer)
+                        {
+                        if (cbFrame == 0 && mCircularBuffer.size() >= cbHeader)
+                            {
+                            for (int ib = 0; ib < framing.length; ib++)
                                 {
-                                mMarkedItemQueue.removeItems(cbRead);
-                                //
-                                if (timeWindow != null)
-                                    {
-                                    timeWindow.setNanosecondsFirst(mTimestamps.getFirst());
-                                    timeWindow.setNanosecondsLast(mTimestamps.removeFirstCount(cbRead));
-                                    }
-                                else
+                                if (mCircularBuffer.get(ib) != framing[ib])
                                     {
-                                    mTimestamps.removeFirstCount(cbRead);    // just discard
+                                    return FtDevice.RC_FRAMING_ERROR;
                                     }
-                                //
-                                mCircularBuffer.notifyAll();
                                 }
-                            return cbRead;
+                            cbFrame = (mCircularBuffer.get(ibLength) & 0xFF) | ((mCircularBuffer.get(ibLength + 1) & 0xFF) << 8);
+                            if (cbFrame < cbHeader || cbFrame > data.length)
+                                {
+                                return FtDevice.RC_FRAMING_ERROR;
+                                }
+                            }
+
+                        if (cbFrame > 0 && mCircularBuffer.size() >= cbFrame)
+                            {
+                            return removeBulkInData(data, 0, cbFrame, timeWindow);
                             }
 
-                        // Not enough data. Wait for more data to come in. In art, the wait system
-                        // complains to the log if you use a non-integer wait interval, so we cap.
                         long msRemaining = Math.min(readDeadline.timeRemaining(TimeUnit.MILLISECONDS), Integer.MAX_VALUE);
                         if (msRemaining > 0)
                             {
@@ -582,7 +642,7 @@ public class ReadBufferManager extends FtConstants
                 }
             finally
                 {
-                verifyInvariants("<-readBulkInData");
+                verifyInvariants("<-readBulkInFrame");
                 mReadBulkInDataThread = null;
                 }
             }
@@ -592,6 +652,29 @@ public class ReadBufferManager extends FtConstants
             }
         }
 
+    /** Removes data from our buffer into the caller's. Caller must hold the lock on mCircularBuffer */
+    private int removeBulkInData(byte[] data, int ibFirst, int cbToRead, @Nullable TimeWindow timeWindow)
+        {
+        int cbRead = mCircularBuffer.read(data, ibFirst, cbToRead);
+        if (cbRead > 0)
+            {
+            mMarkedItemQueue.removeItems(cbRead);
+            //
+            if (timeWindow != null)
+                {
+                timeWindow.setNanosecondsFirst(mTimestamps.getFirst());
+                timeWindow.setNanosecondsLast(mTimestamps.removeFirstCount(cbRead));
+                }
+            else
+                {
+                mTimestamps.removeFirstCount(cbRead);    // just discard
+                }
+            //
+            mCircularBuffer.notifyAll();
+            }
+        return cbRead;
+        }
+
     /** We cache in member variable to as to avoid creating oodles of short-lived objects */
     protected Deadline getReadDeadline(long msTimeout)
         {
@@ -47,6 +47,12 @@ public class TimeWindow
         clear();
         }
 
+    public TimeWindow(TimeWindow other)
+        {
+        this.nsFirst = other.nsFirst;
+        this.nsLast  = other.nsLast;
+        }
+
     public void clear()
         {
         this.nsFirst = 0;
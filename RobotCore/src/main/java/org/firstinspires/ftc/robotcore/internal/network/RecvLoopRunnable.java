@@ -7,12 +7,16 @@ import com.qualcomm.robotcore.exception.RobotCoreException;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.RobocolDatagram;
 import com.qualcomm.robotcore.robocol.RobocolDatagramSocket;
+import com.qualcomm.robotcore.robocol.TelemetryDeltaMessage;
+import com.qualcomm.robotcore.robocol.TelemetryMessage;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.ThreadPool;
 
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 
 @SuppressWarnings("WeakerAccess")
@@ -31,6 +35,67 @@ public class RecvLoopRunnable implements Runnable {
     private final static int BANDWIDTH_SAMPLE_PERIOD = 500;
     private double bytesPerMilli = 0.0;
 
+    /**
+     * Received commands are queued in separate lanes, each with its own queue and worker
+     * thread, so that a backlog of slow commands in one lane does not hold up the dequeuing of
+     * commands in another. Commands are processed in order within a lane, but not necessarily
+     * across lanes. Commands are by default processed under the event loop's lock, and so are
+     * serialized with the loop and with each other; commands registered as not needing that
+     * lock (see {@link #setCommandLane(String, CommandLane, boolean)}) run outside it, and so
+     * don't hold up the commands of other lanes.
+     */
+    public enum CommandLane {
+        /** latency-critical opmode control: init, start, and stop */
+        CONTROL(32),
+        /** ordinary requests and notifications; the default */
+        QUERY(128),
+        /** potentially slow file and configuration work */
+        BULK(64);
+
+        public final int capacity;
+        CommandLane(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    protected static final Map<String, CommandLane> commandLanes = new ConcurrentHashMap<String, CommandLane>();
+    protected static final Map<String, Boolean> commandsNeedingEventLoopLock = new ConcurrentHashMap<String, Boolean>();
+    static {
+        setCommandLane(RobotCoreCommandList.CMD_NOTIFY_INIT_OP_MODE,       CommandLane.CONTROL);
+        setCommandLane(RobotCoreCommandList.CMD_NOTIFY_RUN_OP_MODE,        CommandLane.CONTROL);
+        setCommandLane(RobotCoreCommandList.CMD_NOTIFY_ROBOT_STATE,        CommandLane.CONTROL);
+        setCommandLane(RobotCoreCommandList.CMD_REQUEST_INSPECTION_REPORT, CommandLane.BULK, false);
+        setCommandLane(RobotCoreCommandList.CMD_REQUEST_FRAME,             CommandLane.BULK, false);
+        setCommandLane(RobotCoreCommandList.CMD_RECEIVE_FRAME_BEGIN,       CommandLane.BULK, false);
+        setCommandLane(RobotCoreCommandList.CMD_RECEIVE_FRAME_CHUNK,       CommandLane.BULK, false);
+    }
+
+    /** Assigns the named command to the indicated lane. Commands not so assigned are {@link CommandLane#QUERY QUERY}s. */
+    public static void setCommandLane(String commandName, CommandLane lane) {
+        setCommandLane(commandName, lane, true);
+    }
+
+    /**
+     * Assigns the named command to the indicated lane, and records whether its processing must
+     * hold the event loop's lock. Only commands that don't touch the state of the running event
+     * loop (file reads and writes, reports, and the like) should be registered as not needing it.
+     */
+    public static void setCommandLane(String commandName, CommandLane lane, boolean needsEventLoopLock) {
+        commandLanes.put(commandName, lane);
+        commandsNeedingEventLoopLock.put(commandName, needsEventLoopLock);
+    }
+
+    public static CommandLane getCommandLane(String commandName) {
+        CommandLane lane = commandLanes.get(commandName);
+        return lane != null ? lane : CommandLane.QUERY;
+    }
+
+    /** Returns whether the named command must be processed under the event loop's lock. By default, commands must. */
+    public static boolean needsEventLoopLock(String commandName) {
+        Boolean needsLock = commandsNeedingEventLoopLock.get(commandName);
+        return needsLock == null || needsLock;
+    }
+
     public interface RecvLoopCallback {
         CallbackResult packetReceived(RobocolDatagram packet) throws RobotCoreException;
 
@@ -73,18 +138,17 @@ public class RecvLoopRunnable implements Runnable {
 
     protected ElapsedTime lastRecvPacket;
     protected ElapsedTime packetProcessingTimer;
-    protected ElapsedTime commandProcessingTimer;
     protected double sProcessingTimerReportingThreshold;
     protected RobocolDatagramSocket socket;
     protected RecvLoopCallback callback;
-    protected LinkedBlockingDeque<Command> commandsToProcess = new LinkedBlockingDeque<Command>();
+    protected final LinkedBlockingDeque<Command>[] commandsToProcess = newCommandQueues();
+    protected TelemetryDeltaMessage.Decoder telemetryDeltaDecoder = new TelemetryDeltaMessage.Decoder();
 
     public RecvLoopRunnable(RecvLoopCallback callback, @NonNull RobocolDatagramSocket socket, @Nullable ElapsedTime lastRecvPacket ) {
         this.callback = callback;
         this.socket = socket;
         this.lastRecvPacket = lastRecvPacket;
         this.packetProcessingTimer = new ElapsedTime();
-        this.commandProcessingTimer = new ElapsedTime();
         this.sProcessingTimerReportingThreshold = 0.5;
         this.socket.gatherTrafficData(DO_TRAFFIC_DATA);
         RobotLog.vv(TAG, "RecvLoopRunnable created");
@@ -94,12 +158,71 @@ public class RecvLoopRunnable implements Runnable {
         this.callback = callback;
     }
 
+    /**
+     * Reconstitutes full telemetry from a delta and passes it on as if it had been received
+     * as such. Deltas that depend on a frame we missed are dropped until the next keyframe.
+     */
+    protected void telemetryDeltaEvent(RobocolDatagram packet) throws RobotCoreException {
+        TelemetryMessage telemetry = telemetryDeltaDecoder.decode(new TelemetryDeltaMessage(packet.getData()));
+        if (telemetry != null) {
+            RobocolDatagram reconstituted = new RobocolDatagram(telemetry);
+            try {
+                callback.telemetryEvent(reconstituted);
+            } finally {
+                reconstituted.close();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static LinkedBlockingDeque<Command>[] newCommandQueues() {
+        LinkedBlockingDeque<Command>[] result = new LinkedBlockingDeque[CommandLane.values().length];
+        for (CommandLane lane : CommandLane.values()) {
+            result[lane.ordinal()] = new LinkedBlockingDeque<Command>(lane.capacity);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the lane of the indicated command has room to accept it. This is checked
+     * before a command is acknowledged: a command that we can't queue is not acked, so that the
+     * sender will retransmit it later rather than consider it delivered.
+     */
+    protected boolean canEnqueueCommand(Command command) {
+        CommandLane lane = getCommandLane(command.getName());
+        if (commandsToProcess[lane.ordinal()].remainingCapacity() > 0) {
+            return true;
+        }
+        RobotLog.ee(TAG, "%s command queue full; rejecting unacknowledged command %s(%d)", lane, command.getName(), command.getSequenceNumber());
+        return false;
+    }
+
+    protected void enqueueCommand(Command command) {
+        CommandLane lane = getCommandLane(command.getName());
+        try {
+            // Only the receive loop adds commands in the normal course of things, and it has
+            // checked for room before acknowledging, so we will rarely, if ever, block here.
+            commandsToProcess[lane.ordinal()].putLast(command);
+        } catch (InterruptedException e) {
+            RobotLog.ee(TAG, "interrupted while queueing; dropping command %s(%d)", command.getName(), command.getSequenceNumber());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Processes the commands of one {@link CommandLane}. There should be one of these running for each lane. */
     public class CommandProcessor implements Runnable {
+      protected final CommandLane lane;
+      protected final ElapsedTime commandProcessingTimer = new ElapsedTime();
+
+      public CommandProcessor(CommandLane lane) {
+        this.lane = lane;
+      }
+
       @Override public void run() {
         while (!Thread.currentThread().isInterrupted()) {
           try {
             // Wait for a command to appear, then process it
-            Command command = commandsToProcess.takeFirst();
+            Command command = commandsToProcess[lane.ordinal()].takeFirst();
             commandProcessingTimer.reset();
             //
             if (DEBUG) RobotLog.vv(TAG, "command=%s...", command.getName());
@@ -108,7 +231,7 @@ public class RecvLoopRunnable implements Runnable {
             //
             double seconds = commandProcessingTimer.seconds();
             if (seconds > sProcessingTimerReportingThreshold) {
-                RobotLog.ee(TAG, "command processing took %.3f s: command=%s", seconds, command.getName());
+                RobotLog.ee(TAG, "command processing took %.3f s: lane=%s command=%s", seconds, lane, command.getName());
             }
           } catch (InterruptedException e) {
             // Just get out of here
@@ -123,7 +246,7 @@ public class RecvLoopRunnable implements Runnable {
     }
 
     public void injectReceivedCommand(Command cmd) {
-        commandsToProcess.addLast(cmd);
+        enqueueCommand(cmd);
     }
 
     public long getBytesPerSecond() {
@@ -186,15 +309,21 @@ public class RecvLoopRunnable implements Runnable {
                                     // long time w/o adversely affecting network responsiveness, which could
                                     // otherwise lead to apparent disconnects.
                                     Command command = new Command(packet);
+                                    if (!command.isAcknowledged() && !canEnqueueCommand(command)) {
+                                      break;
+                                    }
                                     CallbackResult result = NetworkConnectionHandler.getInstance().processAcknowledgments(command);
                                     if (!result.isHandled()) {
                                       RobotLog.vv(RobocolDatagram.TAG, "received command: %s(%d) %s", command.getName(), command.getSequenceNumber(), command.getExtra());
-                                      commandsToProcess.addLast(command);
+                                      enqueueCommand(command);
                                     }
                                     break;
                                 case TELEMETRY:
                                     callback.telemetryEvent(packet);
                                     break;
+                                case TELEMETRY_DELTA:
+                                    telemetryDeltaEvent(packet);
+                                    break;
                                 case GAMEPAD:
                                     callback.gamepadEvent(packet);
                                     break;
@@ -206,6 +335,12 @@ public class RecvLoopRunnable implements Runnable {
                                      * Intentionally swallow.
                                      */
                                     break;
+                                case TELEMETRY_SAMPLES:
+                                    /*
+                                     * Consumers of sample streams see them in packetReceived(); there's
+                                     * no need to bother anyone else with them.
+                                     */
+                                    break;
                                 default:
                                     RobotLog.ee(TAG, "Unhandled message type: " + packet.getMsgType().name());
                                     break;
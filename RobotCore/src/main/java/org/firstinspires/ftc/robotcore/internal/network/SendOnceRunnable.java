@@ -71,6 +71,8 @@ public class SendOnceRunnable implements Runnable {
     @NonNull protected volatile RobocolDatagramSocket   socket;
     @NonNull protected DisconnectionCallback            disconnectionCallback;
     @NonNull protected final Parameters                 parameters;
+    @NonNull protected final RobocolDatagram            sendDatagram = new RobocolDatagram(new byte[0]);  // reused for each send: we're only run on one thread at a time
+    @NonNull protected final List<Command>              commandsToRemove = new ArrayList<Command>();
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -124,8 +126,8 @@ public class SendOnceRunnable implements Runnable {
                 heartbeatSend.setTimeZoneId(TimeZone.getDefault().getID());
                 // keep the next three lines as close together in time as possible in order to improve the quality of time synchronization
                 heartbeatSend.t0 = appUtil.getWallClockTime();
-                RobocolDatagram packetHeartbeat = new RobocolDatagram(heartbeatSend);
-                send(packetHeartbeat);
+                sendDatagram.setData(heartbeatSend);
+                send(sendDatagram);
                 sentPacket = true;
                 // Do any logging after the transmission so as to minimize disruption of timing calculation
             }
@@ -140,23 +142,23 @@ public class SendOnceRunnable implements Runnable {
                         continue;
 
                     gamepad.setSequenceNumber();
-                    RobocolDatagram packetGamepad = new RobocolDatagram(gamepad);
-                    send(packetGamepad);
+                    sendDatagram.setData(gamepad);
+                    send(sendDatagram);
                     sentPacket = true;
                 }
             }
 
             if ((!sentPacket) && (parameters.originateKeepAlives) && (keepAliveSend.getElapsedSeconds() > 0.001 * MS_KEEPALIVE_TRANSMISSION_INTERVAL)) {
                 keepAliveSend = KeepAlive.createWithTimeStamp();
-                RobocolDatagram packetKeepAlive = new RobocolDatagram(keepAliveSend);
-                send(packetKeepAlive);
+                sendDatagram.setData(keepAliveSend);
+                send(sendDatagram);
             }
 
 
             long nanotimeNow = System.nanoTime();
 
             // send commands
-            List<Command> commandsToRemove = new ArrayList<Command>();
+            commandsToRemove.clear();
             for (Command command : pendingCommands) {
 
                 // if this command has exceeded max attempts or is no longer worth transmitting, give up
@@ -177,8 +179,8 @@ public class SendOnceRunnable implements Runnable {
                     }
 
                     // send the command
-                    RobocolDatagram packetCommand = new RobocolDatagram(command);
-                    send(packetCommand);
+                    sendDatagram.setData(command);
+                    send(sendDatagram);
 
                     // if this is a command we handled, remove it
                     if (command.isAcknowledged()) commandsToRemove.add(command);
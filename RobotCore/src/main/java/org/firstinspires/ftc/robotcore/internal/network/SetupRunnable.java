@@ -63,11 +63,12 @@ public class SetupRunnable implements Runnable
                 }
 
                 // start the new event loops
-                recvLoopService = ThreadPool.newFixedThreadPool(2, "ReceiveLoopService");
+                recvLoopService = ThreadPool.newFixedThreadPool(1 + RecvLoopRunnable.CommandLane.values().length, "ReceiveLoopService");
                 recvLoopRunnable = new RecvLoopRunnable(recvLoopCallback, socket, lastRecvPacket);
-                RecvLoopRunnable.CommandProcessor commandProcessor = recvLoopRunnable.new CommandProcessor();
                 NetworkConnectionHandler.getInstance().setRecvLoopRunnable(recvLoopRunnable);
-                recvLoopService.execute(commandProcessor);
+                for (RecvLoopRunnable.CommandLane lane : RecvLoopRunnable.CommandLane.values()) {
+                    recvLoopService.execute(recvLoopRunnable.new CommandProcessor(lane));
+                }
                 recvLoopService.execute(recvLoopRunnable);
 
                 // start peer discovery service. do this after we set up listener so as not to miss anything
@@ -51,6 +51,7 @@ import com.qualcomm.robotcore.hardware.RobotCoreLynxUsbDevice;
 import com.qualcomm.robotcore.hardware.ServoController;
 import com.qualcomm.robotcore.robocol.Command;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.util.ElapsedTime;
 import com.qualcomm.robotcore.util.RobotLog;
 import com.qualcomm.robotcore.util.ThreadPool;
@@ -568,6 +569,15 @@ public class OpModeManagerImpl implements OpModeServices, OpModeManagerNotifier
     this.eventLoopManager.getEventLoop().refreshUserTelemetry(telemetry, sInterval);
   }
 
+  /** For the use of {@link TelemetryImpl}. */
+  public static void sendTelemetrySamplesNow(OpMode opMode, TelemetrySamplesMessage samples) {
+    opMode.internalSendTelemetrySamplesNow(samples);
+  }
+
+  @Override public void sendUserTelemetrySamples(TelemetrySamplesMessage samples) {
+    this.eventLoopManager.getEventLoop().sendUserTelemetrySamples(samples);
+  }
+
   /**
    * Requests that an OpMode be stopped.
    * @see OpMode#requestOpModeStop()
@@ -34,6 +34,7 @@ package org.firstinspires.ftc.robotcore.internal.opmode;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 
 /*
  * The OpModeServices interface is an internal interface used to provide services callbacks
@@ -53,6 +54,13 @@ public interface OpModeServices
      */
     void refreshUserTelemetry(TelemetryMessage telemetry, double sInterval);
 
+    /**
+     * Transmits the indicated batch of telemetry samples to the driver station, then clears it.
+     * Samples are batched by their producer, so this is not subject to a minimum interval.
+     * @param samples the samples to send
+     */
+    void sendUserTelemetrySamples(TelemetrySamplesMessage samples);
+
     /**
      * If the indicated OpMode is the currently active OpMode, cause that OpMode to stop as if
      * the stop button had been pressed on the driver station
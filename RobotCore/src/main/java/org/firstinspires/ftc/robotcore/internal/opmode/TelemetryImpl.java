@@ -37,6 +37,7 @@ import android.support.annotation.Nullable;
 
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.robocol.TelemetryMessage;
+import com.qualcomm.robotcore.robocol.TelemetrySamplesMessage;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.robotcore.external.Func;
@@ -133,7 +134,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
 
     protected interface Lineable
         {
-        String getComposed(boolean recompose);
+        void appendComposed(StringBuilder builder, boolean recompose);
         }
 
     protected class LineableContainer implements Iterable<Lineable>
@@ -190,6 +191,18 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                 }
             }
 
+        NumericItem addNumericItem(String caption, int decimalPlaces)
+            {
+            synchronized (theLock)
+                {
+                onAddData();
+
+                NumericItemImpl result = new NumericItemImpl(this, caption, decimalPlaces);
+                boundedAddToList(list.size(), result);
+                return result;
+                }
+            }
+
         boolean isEmpty()
             {
             synchronized (theLock)
@@ -222,7 +235,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                 }
             }
 
-        boolean removeAllRecurse(Predicate<ItemImpl> predicate)
+        boolean removeAllRecurse(Predicate<ItemImpl> predicate, boolean removeNumeric)
             {
             synchronized (theLock)
                 {
@@ -233,7 +246,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                     if (cur instanceof LineImpl)
                         {
                         LineImpl line = (LineImpl)cur;
-                        line.lineables.removeAllRecurse(predicate);
+                        line.lineables.removeAllRecurse(predicate, removeNumeric);
 
                         // Remove the line itself if it's empty
                         if (line.lineables.isEmpty())
@@ -254,6 +267,11 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                         else
                             i++;
                         }
+                    else if (cur instanceof NumericItemImpl && removeNumeric)
+                        {
+                        list.remove(i);
+                        result = true;
+                        }
                     else
                         i++;
                     }
@@ -289,11 +307,11 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // Operations
         //------------------------------------------------------------------------------------------
 
-        @Override public String getComposed(boolean recompose)
+        @Override public void appendComposed(StringBuilder builder, boolean recompose)
             {
             synchronized (theLock)
                 {
-                return String.format("%s%s%s", this.caption, getCaptionValueSeparator(), this.value.getComposed(recompose));
+                builder.append(this.caption).append(getCaptionValueSeparator()).append(this.value.getComposed(recompose));
                 }
             }
 
@@ -413,21 +431,19 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // Operations
         //------------------------------------------------------------------------------------------
 
-        @Override public String getComposed(boolean recompose)
+        @Override public void appendComposed(StringBuilder builder, boolean recompose)
             {
-            StringBuilder result = new StringBuilder();
-            result.append(this.lineCaption);
+            builder.append(this.lineCaption);
             boolean firstTime = true;
             for (Lineable lineable : lineables)
                 {
                 if (!firstTime)
                     {
-                    result.append(getItemSeparator());
+                    builder.append(getItemSeparator());
                     }
-                result.append(lineable.getComposed(recompose));
+                lineable.appendComposed(builder, recompose);
                 firstTime = false;
                 }
-            return result.toString();
             }
 
         @Override public Item addData(String caption, String format, Object... args)
@@ -451,6 +467,141 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             }
         }
 
+    protected class NumericItemImpl implements NumericItem, Lineable
+        {
+        //------------------------------------------------------------------------------------------
+        // State
+        //------------------------------------------------------------------------------------------
+
+        final LineableContainer parent;
+        final String  caption;
+        final int     decimalPlaces;
+        double  doubleValue = 0;
+        long    longValue   = 0;
+        boolean isIntegral  = true;
+
+        //------------------------------------------------------------------------------------------
+        // Construction
+        //------------------------------------------------------------------------------------------
+
+        NumericItemImpl(LineableContainer parent, String caption, int decimalPlaces)
+            {
+            this.parent = parent;
+            this.caption = caption;
+            this.decimalPlaces = Math.max(0, Math.min(decimalPlaces, powersOfTen.length-1));
+            }
+
+        //------------------------------------------------------------------------------------------
+        // Operations
+        //------------------------------------------------------------------------------------------
+
+        @Override public void appendComposed(StringBuilder builder, boolean recompose)
+            {
+            synchronized (theLock)
+                {
+                builder.append(this.caption).append(getCaptionValueSeparator());
+                if (this.isIntegral)
+                    builder.append(this.longValue);
+                else
+                    appendFixed(builder, this.doubleValue, this.decimalPlaces);
+                }
+            }
+
+        @Override public String getCaption()
+            {
+            return this.caption;
+            }
+
+        @Override public NumericItem setValue(double value)
+            {
+            synchronized (theLock)
+                {
+                this.doubleValue = value;
+                this.isIntegral = false;
+                return this;
+                }
+            }
+
+        @Override public NumericItem setValue(long value)
+            {
+            synchronized (theLock)
+                {
+                this.longValue = value;
+                this.doubleValue = value;
+                this.isIntegral = true;
+                return this;
+                }
+            }
+
+        @Override public double getValue()
+            {
+            synchronized (theLock)
+                {
+                return this.doubleValue;
+                }
+            }
+        }
+
+    protected class ChannelImpl implements Channel
+        {
+        //------------------------------------------------------------------------------------------
+        // State
+        //------------------------------------------------------------------------------------------
+
+        final TelemetrySamplesMessage samples;  // the message in which we're defined
+        final String     name;
+        final SampleType type;
+        final byte       wireType;
+        final int        id;
+
+        //------------------------------------------------------------------------------------------
+        // Construction
+        //------------------------------------------------------------------------------------------
+
+        ChannelImpl(TelemetrySamplesMessage samples, String name, SampleType type)
+            {
+            this.samples = samples;
+            this.name = name;
+            this.type = type;
+            switch (type)
+                {
+                case INT:   this.wireType = TelemetrySamplesMessage.TYPE_INT;   break;
+                case FLOAT: this.wireType = TelemetrySamplesMessage.TYPE_FLOAT; break;
+                default:    this.wireType = TelemetrySamplesMessage.TYPE_DOUBLE; break;
+                }
+            this.id = samples.defineChannel(name, this.wireType);
+            }
+
+        //------------------------------------------------------------------------------------------
+        // Operations
+        //------------------------------------------------------------------------------------------
+
+        @Override public String getName()
+            {
+            return this.name;
+            }
+
+        @Override public SampleType getType()
+            {
+            return this.type;
+            }
+
+        @Override public void addSample(double value)
+            {
+            addSample(value, System.nanoTime());
+            }
+
+        @Override public void addSample(int value)
+            {
+            recordSample(this, System.nanoTime(), TelemetrySamplesMessage.toBits(this.wireType, value));
+            }
+
+        @Override public void addSample(double value, long nanoTime)
+            {
+            recordSample(this, nanoTime, TelemetrySamplesMessage.toBits(this.wireType, value));
+            }
+        }
+
     protected class LogImpl implements Log
         {
         //------------------------------------------------------------------------------------------
@@ -592,9 +743,16 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
     // State
     //----------------------------------------------------------------------------------------------
 
+    protected static final long[] powersOfTen = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+    protected static final String[] keys = new String[TelemetryMessage.cCountMax + 1];
+
     protected final Object theLock = new Object();
     protected LineableContainer   lines;
-    protected List<String>        composedLines;
+    protected List<StringBuilder> composedLines;      // reused from transmission to transmission
+    protected int                 composedLineCount;
+    protected TelemetryMessage    transmitter;
+    protected TelemetrySamplesMessage samples;
+    protected ElapsedTime         samplesTransmissionTimer;
     protected List<Runnable>      actions;
     protected LogImpl             log;
     protected ElapsedTime         transmissionTimer;
@@ -621,7 +779,15 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
     public void resetTelemetryForOpMode()
         {
         this.lines   = new LineableContainer();
-        this.composedLines = new ArrayList<String>();
+        this.composedLines = new ArrayList<StringBuilder>();
+        this.composedLineCount = 0;
+        this.transmitter = new TelemetryMessage();
+        if (this.samples != null)
+            {
+            transmitSamples();  // don't lose the tail end of the previous OpMode
+            }
+        this.samples = new TelemetrySamplesMessage();
+        this.samplesTransmissionTimer = new ElapsedTime();
         this.actions = new LinkedList<Runnable>();
         log.reset(); // Reuse the log instance in case the user stores a reference to it
         this.transmissionTimer = new ElapsedTime();
@@ -660,10 +826,47 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         {
         // Keys must be unique. If they start with nul, then they're not shown on the driver display.
         // Historically, they were always shown, and sorted, so we used an *increasing sequence*
-        // of unrenderable strings.
+        // of unrenderable strings. We cache them so as to avoid formatting them on every transmission.
+        if (iLine < keys.length)
+            {
+            String result = keys[iLine];
+            if (result == null)
+                {
+                keys[iLine] = result = String.format("\0%c", 0x180 + iLine);
+                }
+            return result;
+            }
         return String.format("\0%c", 0x180 + iLine);
         }
 
+    /** Appends the value with the indicated number of decimal places, much as "%.nf" would, but without allocation */
+    protected static void appendFixed(StringBuilder builder, double value, int decimalPlaces)
+        {
+        long scale = powersOfTen[decimalPlaces];
+        double scaled = Math.abs(value) * scale;
+        if (Double.isNaN(value) || Double.isInfinite(value) || scaled >= 1e18)
+            {
+            builder.append(value);
+            return;
+            }
+        long rounded = Math.round(scaled);
+        if (value < 0 && rounded != 0)
+            {
+            builder.append('-');
+            }
+        builder.append(rounded / scale);
+        if (decimalPlaces > 0)
+            {
+            builder.append('.');
+            long fraction = rounded % scale;
+            for (long digit = scale / 10; digit > 1 && digit > fraction; digit /= 10)
+                {
+                builder.append('0');
+                }
+            builder.append(fraction);
+            }
+        }
+
     @Override public boolean update()
         {
         return tryUpdate(UpdateReason.USER);
@@ -682,6 +885,12 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             {
             boolean result = false;
 
+            // Samples go whenever they're due, regardless of what's happening to the display
+            if (this.samples.hasSamples() && this.samplesTransmissionTimer.milliseconds() > msTransmissionInterval)
+                {
+                transmitSamples();
+                }
+
             boolean intervalElapsed = this.transmissionTimer.milliseconds() > msTransmissionInterval;
 
             boolean wantToTransmit  = updateReason==UpdateReason.USER
@@ -699,8 +908,9 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
                     action.run();
                     }
 
-                // Build an object to cary our telemetry data
-                TelemetryMessage transmitter = new TelemetryMessage();
+                // Reuse our object to cary our telemetry data: transmission consumes it synchronously
+                TelemetryMessage transmitter = this.transmitter;
+                transmitter.clearData();
                 this.saveToTransmitter(recompose, transmitter);
 
                 // Transmit if there's anything to transmit
@@ -737,6 +947,36 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             }
         }
 
+    protected void recordSample(ChannelImpl channel, long nanoTime, long bits)
+        {
+        synchronized (theLock)
+            {
+            if (channel.samples != this.samples)
+                {
+                return; // channel is from a previous OpMode
+                }
+            if (!this.samples.addSample(channel.id, nanoTime, bits))
+                {
+                // Full: send what we have early rather than drop anything
+                transmitSamples();
+                this.samples.addSample(channel.id, nanoTime, bits);
+                }
+            }
+        }
+
+    protected void transmitSamples()
+        {
+        synchronized (theLock)
+            {
+            if (this.samples.hasSamples())
+                {
+                // Transmission consumes (and clears) the samples synchronously
+                OpModeManagerImpl.sendTelemetrySamplesNow(this.opMode, this.samples);
+                }
+            this.samplesTransmissionTimer.reset();
+            }
+        }
+
     protected void saveToTransmitter(boolean recompose, TelemetryMessage transmitter)
         {
         transmitter.setSorted(false);
@@ -744,21 +984,27 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         // When we recompose, we save the composed lines. Thus, they will stick around
         // even after we might get clear()'d. In that way, they'll still be there to
         // transmit if a log() write should happen to occur after the clear() but before
-        // a subsequent user update().
+        // a subsequent user update(). The builders are reused to minimize garbage.
         if (recompose)
             {
-            this.composedLines = new ArrayList<String>();
+            this.composedLineCount = 0;
             for (Lineable lineable : this.lines)
                 {
-                this.composedLines.add(lineable.getComposed(recompose));
+                if (this.composedLineCount == this.composedLines.size())
+                    {
+                    this.composedLines.add(new StringBuilder());
+                    }
+                StringBuilder builder = this.composedLines.get(this.composedLineCount++);
+                builder.setLength(0);
+                lineable.appendComposed(builder, recompose);
                 }
             }
 
         // Add in the composed lines
         int iLine = 0;
-        for (iLine = 0; iLine < this.composedLines.size(); iLine++)
+        for (iLine = 0; iLine < this.composedLineCount; iLine++)
             {
-            transmitter.addData(getKey(iLine), this.composedLines.get(iLine));
+            transmitter.addData(getKey(iLine), this.composedLines.get(iLine).toString());
             }
 
         // Add in the log
@@ -872,6 +1118,29 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         return this.lines.addItemAfter(null, caption, new Value<T>(format, valueProducer));
         }
 
+    @Override public NumericItem addNumericItem(String caption, int decimalPlaces)
+        {
+        return this.lines.addNumericItem(caption, decimalPlaces);
+        }
+
+    @Override public boolean removeNumericItem(NumericItem item)
+        {
+        if (item instanceof NumericItemImpl)
+            {
+            NumericItemImpl itemImpl = (NumericItemImpl)item;
+            return itemImpl.parent.remove(itemImpl);
+            }
+        return false;
+        }
+
+    @Override public Channel addChannel(String name, SampleType type)
+        {
+        synchronized (theLock)
+            {
+            return new ChannelImpl(this.samples, name, type);
+            }
+        }
+
     @Override public Line addLine()
         {
         return this.lines.addLineAfter(null, "");
@@ -901,6 +1170,23 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
         return false;
         }
 
+    // Allocated once, as clear() is called on every auto-clearing update
+    protected final Predicate<ItemImpl> unretainedItems = new Predicate<ItemImpl>()
+        {
+        @Override public boolean test(ItemImpl item)
+            {
+            return !item.isRetained();
+            }
+        };
+
+    protected final Predicate<ItemImpl> allItems = new Predicate<ItemImpl>()
+        {
+        @Override public boolean test(ItemImpl item)
+            {
+            return true;
+            }
+        };
+
     protected void onAddData()
         {
         if (this.clearOnAdd)
@@ -920,13 +1206,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             this.clearOnAdd = false;
             markClean();
             //
-            this.lines.removeAllRecurse(new Predicate<ItemImpl>()
-                {
-                @Override public boolean test(ItemImpl item)
-                    {
-                    return !item.isRetained();
-                    }
-                });
+            this.lines.removeAllRecurse(unretainedItems, false);
             }
         }
 
@@ -938,13 +1218,7 @@ public class TelemetryImpl implements Telemetry, TelemetryInternal
             markClean();
             //
             this.actions.clear();
-            this.lines.removeAllRecurse(new Predicate<ItemImpl>()
-                {
-                @Override public boolean test(ItemImpl item)
-                    {
-                    return true;
-                    }
-                });
+            this.lines.removeAllRecurse(allItems, true);
             }
         }
     }
\ No newline at end of file
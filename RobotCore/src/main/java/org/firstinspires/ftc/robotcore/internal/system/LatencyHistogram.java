@@ -0,0 +1,196 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.firstinspires.ftc.robotcore.internal.system;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyHistogram} is a lock-free histogram of durations, in the style of HdrHistogram:
+ * buckets are exact for small values and thereafter logarithmic, with a fixed number of linear
+ * sub-buckets per power of two, so the relative error of any reported value is bounded (here,
+ * by 1/8). Durations are recorded in nanoseconds but bucketed at microsecond resolution.
+ * Recording may be done concurrently from any number of threads without blocking.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LatencyHistogram
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected static final int subBucketBits  = 3;
+    protected static final int subBucketCount = 1 << subBucketBits;
+    protected static final int linearLimit    = subBucketCount << 1;   // values below this get their own bucket
+    protected static final int maxExponent    = 31;                     // about 35 minutes in microseconds; larger values are clipped
+    protected static final int bucketCount    = linearLimit + (maxExponent - subBucketBits) * subBucketCount;
+
+    protected final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+    protected final AtomicLong      count  = new AtomicLong(0);
+    protected final AtomicLong      nsSum  = new AtomicLong(0);
+    protected final AtomicLong      nsMax  = new AtomicLong(0);
+
+    //----------------------------------------------------------------------------------------------
+    // Recording
+    //----------------------------------------------------------------------------------------------
+
+    public void record(long nsDuration)
+        {
+        if (nsDuration < 0) nsDuration = 0;
+        counts.incrementAndGet(bucketIndex(nsDuration / 1000));
+        count.incrementAndGet();
+        nsSum.addAndGet(nsDuration);
+        for (;;)
+            {
+            long max = nsMax.get();
+            if (nsDuration <= max || nsMax.compareAndSet(max, nsDuration))
+                break;
+            }
+        }
+
+    /** Not atomic with respect to concurrent recording; intended for quiescent moments */
+    public void reset()
+        {
+        for (int i = 0; i < bucketCount; i++)
+            {
+            counts.set(i, 0);
+            }
+        count.set(0);
+        nsSum.set(0);
+        nsMax.set(0);
+        }
+
+    protected static int bucketIndex(long us)
+        {
+        if (us < linearLimit)
+            {
+            return (int)us;
+            }
+        int exponent = 63 - Long.numberOfLeadingZeros(us);
+        if (exponent >= maxExponent)
+            {
+            return bucketCount - 1;
+            }
+        int subBucket = (int)(us >> (exponent - subBucketBits)) & (subBucketCount - 1);
+        return linearLimit + (exponent - subBucketBits - 1) * subBucketCount + subBucket;
+        }
+
+    /** Returns the largest value, in microseconds, that falls in the indicated bucket */
+    protected static long bucketHighestValue(int index)
+        {
+        if (index < linearLimit)
+            {
+            return index;
+            }
+        int exponent  = (index - linearLimit) / subBucketCount + subBucketBits + 1;
+        int subBucket = (index - linearLimit) % subBucketCount;
+        long lowest = (1L << exponent) | ((long)subBucket << (exponent - subBucketBits));
+        return lowest + (1L << (exponent - subBucketBits)) - 1;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Querying
+    //----------------------------------------------------------------------------------------------
+
+    public long getCount()
+        {
+        return count.get();
+        }
+
+    public double getMsMean()
+        {
+        long n = count.get();
+        return n == 0 ? 0 : nsSum.get() * 1e-6 / n;
+        }
+
+    public double getMsMax()
+        {
+        return nsMax.get() * 1e-6;
+        }
+
+    /**
+     * Returns the value, in milliseconds, at or below which the indicated percentage (0..100)
+     * of the recorded durations lie, or zero if nothing has been recorded.
+     */
+    public double getMsPercentile(double percentile)
+        {
+        long[] snapshot = new long[bucketCount];
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++)
+            {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+            }
+        if (total == 0)
+            {
+            return 0;
+            }
+        long rank = Math.max(1, (long)Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++)
+            {
+            seen += snapshot[i];
+            if (seen >= rank)
+                {
+                return Math.min(bucketHighestValue(i) * 1e-3, getMsMax());
+                }
+            }
+        return getMsMax();
+        }
+
+    /** Returns a plain-data summary of this histogram, suitable for (eg) serializing to JSON */
+    public Summary getSummary()
+        {
+        return new Summary(this);
+        }
+
+    public static class Summary
+        {
+        public final long   count;
+        public final double msMean;
+        public final double msP50;
+        public final double msP90;
+        public final double msP99;
+        public final double msMax;
+
+        protected Summary(LatencyHistogram histogram)
+            {
+            this.count  = histogram.getCount();
+            this.msMean = histogram.getMsMean();
+            this.msP50  = histogram.getMsPercentile(50);
+            this.msP90  = histogram.getMsPercentile(90);
+            this.msP99  = histogram.getMsPercentile(99);
+            this.msMax  = histogram.getMsMax();
+            }
+        }
+    }
@@ -0,0 +1,102 @@
+/*
+Copyright (c) 2019 OpenRC-Turbo contributors
+
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted (subject to the limitations in the disclaimer below) provided that
+the following conditions are met:
+
+Redistributions of source code must retain the above copyright notice, this list
+of conditions and the following disclaimer.
+
+Redistributions in binary form must reproduce the above copyright notice, this
+list of conditions and the following disclaimer in the documentation and/or
+other materials provided with the distribution.
+
+Neither the name of the copyright holders nor the names of their contributors may
+be used to endorse or promote products derived from this software without specific
+prior written permission.
+
+NO EXPRESS OR IMPLIED LICENSES TO ANY PARTY'S PATENT RIGHTS ARE GRANTED BY THIS
+LICENSE. THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.firstinspires.ftc.robotcore.internal.system;
+
+import org.firstinspires.ftc.robotcore.external.function.Supplier;
+import org.firstinspires.ftc.robotcore.internal.collections.SimpleGson;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link StatisticsRegistry} is where layers above RobotCore (hardware drivers, for example)
+ * register sources of run time statistics so that they can be exported, as JSON, by the
+ * robot controller web server without it needing to know anything about them.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StatisticsRegistry
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected static class InstanceHolder
+        {
+        public static final StatisticsRegistry theInstance = new StatisticsRegistry();
+        }
+    public static StatisticsRegistry getInstance()
+        {
+        return InstanceHolder.theInstance;
+        }
+
+    protected final ConcurrentMap<String, Supplier<Object>> sources = new ConcurrentSkipListMap<String, Supplier<Object>>();
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /** Registers a source of statistics, replacing any previously registered under the same name.
+     * The supplier's result is serialized with Gson, so should be plain data. */
+    public void register(String name, Supplier<Object> source)
+        {
+        sources.put(name, source);
+        }
+
+    public void unregister(String name)
+        {
+        sources.remove(name);
+        }
+
+    /** Unregisters the source only if it is still the one registered under the name */
+    public void unregister(String name, Supplier<Object> source)
+        {
+        sources.remove(name, source);
+        }
+
+    public Map<String, Object> getStatistics()
+        {
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Supplier<Object>> pair : sources.entrySet())
+            {
+            result.put(pair.getKey(), pair.getValue().get());
+            }
+        return result;
+        }
+
+    public String toJson()
+        {
+        return SimpleGson.getInstance().toJson(getStatistics());
+        }
+    }
@@ -55,6 +55,7 @@ import org.firstinspires.ftc.robotcore.internal.network.DeviceNameManagerFactory
 import org.firstinspires.ftc.robotcore.internal.network.PasswordManager;
 import org.firstinspires.ftc.robotcore.internal.network.PasswordManagerFactory;
 import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.robotcore.internal.system.StatisticsRegistry;
 import org.firstinspires.ftc.robotcore.internal.ui.UILocation;
 import org.firstinspires.ftc.robotcore.internal.webserver.RobotControllerWebInfo;
 import org.firstinspires.ftc.robotcore.internal.webserver.WebHandler;
@@ -114,6 +115,7 @@ public class RobotControllerWebHandlers
     public static final String URI_REBOOT = "/reboot";
     public static final String URI_RC_INFO = "/js/rcInfo.json";
     public static final String URI_COLORS = "/css/colors.less";
+    public static final String URI_STATISTICS = "/js/statistics.json";
 
     public static final String INDEX_FILE = "frame.html";
 
@@ -160,6 +162,7 @@ public class RobotControllerWebHandlers
         manager.register(URI_RC_CONFIG,             new RobotControllerConfiguration());
         manager.register(URI_RC_INFO,               new RobotControllerInfoHandler(manager.getWebServer()));
         manager.register(URI_REBOOT,                new Reboot());
+        manager.register(URI_STATISTICS,            new StatisticsHandler());
         manager.register(URI_TOAST,                 new SimpleSuccess());
         manager.register(URI_EXIT_PROGRAM_AND_MANAGE, new SimpleSuccess()); // actually *fully* handled in ProgramAndManageActivity, but registering make things neat and tidy
 
@@ -298,6 +301,20 @@ public class RobotControllerWebHandlers
         }
     }
 
+    /**
+     * Returns json containing the run time statistics (eg: Lynx command latencies) that
+     * have been registered with the {@link StatisticsRegistry}
+     */
+    public static class StatisticsHandler implements WebHandler
+    {
+        @Override
+        public Response getResponse(IHTTPSession session) throws IOException, NanoHTTPD.ResponseException
+        {
+            final String jsonResponse = StatisticsRegistry.getInstance().toJson();
+            return NoCachingWebHandler.setNoCache(session, newFixedLengthResponse(Response.Status.OK, MimeTypesUtil.getMimeType("json"), jsonResponse));
+        }
+    }
+
     /**
      * Returns json containing the full paths to all the extant log files.
      * Paths are relative to root, not absolute
@@ -874,6 +891,7 @@ public class RobotControllerWebHandlers
             appendVariable(js, "URI_RC_INFO", URI_RC_INFO);
             appendVariable(js, "URI_REBOOT", URI_REBOOT);
             appendVariable(js, "URI_COLORS", URI_COLORS);
+            appendVariable(js, "URI_STATISTICS", URI_STATISTICS);
 
             appendVariable(js, "PARAM_NAME", PARAM_NAME);
             appendVariable(js, "PARAM_NEW_NAME", PARAM_NEW_NAME);
@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.hardware.ColorSensor;
 import com.qualcomm.robotcore.hardware.DcMotor;
@@ -448,6 +449,11 @@ public class RobotHardware extends OpMode {
 
     private void hardwareInit() {
 
+        // Answer encoder reads from one bulk read per hub, refreshed automatically each loop.
+        for (LynxModule module : hardwareMap.getAll(LynxModule.class)) {
+            module.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+        }
+
         // Creates a list of all valid DcMotors and initializes their
         // Direction, ZeroPowerBehavior, and RunMode( with or without Encoder)
         allMotors = new ArrayList<DcMotor>();
@@ -53,12 +53,14 @@ public class IMUUtilities {
         if (imu == null) {return;}
         lastUpdateSec = opMode.time;
 
-        imuSystemStatus = imu.getSystemStatus();
-        imuCalibrationStatus = imu.getCalibrationStatus();
-
-        angles = imu.getAngularOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.DEGREES);
-        gravity = imu.getGravity();
-        acceleration = imu.getLinearAcceleration();
+        // One snapshot costs two I2C transactions, where reading each quantity separately costs five.
+        BNO055IMU.Snapshot snapshot = imu.getSnapshot();
+        imuSystemStatus = snapshot.systemStatus;
+        imuCalibrationStatus = snapshot.calibrationStatus;
+
+        angles = snapshot.angularOrientation.toAxesReference(AxesReference.INTRINSIC).toAxesOrder(AxesOrder.ZYX).toAngleUnit(AngleUnit.DEGREES);
+        gravity = snapshot.gravity;
+        acceleration = snapshot.linearAcceleration;
 
         heading = angles.firstAngle;
         roll = angles.secondAngle;